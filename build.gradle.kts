@@ -18,4 +18,39 @@ application {
     mainClassName = "beadring.Main"
 }
 
+repositories {
+    mavenCentral()
+}
+
+// JMH benchmarks live in their own source set, sharing the package of the code under measure
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets["main"].output
+        runtimeClasspath += sourceSets["main"].output
+    }
+}
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Runs the benchmarks and writes the results as a JSON baseline; -PjmhInclude=<regex> restricts the benchmarks to run
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks, writing the results to build/reports/jmh/results.json"
+
+    val results = file("$buildDir/reports/jmh/results.json")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    main = "org.openjdk.jmh.Main"
+    args("-rf", "json", "-rff", results.path)
+    if (project.hasProperty("jmhInclude")) {
+        args(project.property("jmhInclude"))
+    }
+
+    doFirst {
+        results.parentFile.mkdirs()
+    }
+}
+
 defaultTasks("compileJava");
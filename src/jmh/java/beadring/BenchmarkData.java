@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package beadring;
+
+import java.util.Random;
+
+/**
+ * Input generators shared by the benchmarks; all of them are seeded, so that runs are comparable
+ *
+ * @author Project2100
+ */
+final class BenchmarkData {
+
+	/**
+	 * How many inputs each benchmark invocation goes through
+	 */
+	static final int BATCH = 1024;
+
+	static final long SEED = 0x5EEDL;
+
+	/**
+	 * Upper bounds for the moduli
+	 */
+	enum Size {
+		SMALL(100), SHORT(Short.MAX_VALUE), INT(Integer.MAX_VALUE);
+
+		final int bound;
+
+		Size(int bound) {
+			this.bound = bound;
+		}
+	}
+
+	/**
+	 * How (term, modulus) coprime pairs are drawn
+	 */
+	enum Distribution {
+		/**
+		 * Random modulus up to the bound, random coprime term
+		 */
+		UNIFORM,
+		/**
+		 * Largest prime modulus under the bound, random term
+		 */
+		PRIME,
+		/**
+		 * Consecutive Fibonacci numbers under the bound, the worst case for Euclid
+		 */
+		FIBONACCI
+	}
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * Fills terms and moduli with BATCH coprime pairs, terms being canonical
+	 */
+	static void pairs(Size size, Distribution distribution, int[] terms, int[] moduli) {
+		Random random = new Random(SEED);
+		int prime = largestPrime(size.bound);
+
+		// Fibonacci pairs, the largest ones first
+		int[] fib = new int[46];
+		fib[0] = 1;
+		fib[1] = 2;
+		int fibCount = 2;
+		while (fibCount < fib.length && (long) fib[fibCount - 1] + fib[fibCount - 2] <= size.bound) {
+			fib[fibCount] = fib[fibCount - 1] + fib[fibCount - 2];
+			fibCount++;
+		}
+
+		for (int i = 0; i < terms.length; i++) {
+			switch (distribution) {
+				case UNIFORM:
+					do {
+						moduli[i] = 2 + random.nextInt(size.bound - 1);
+						terms[i] = 1 + random.nextInt(moduli[i] - 1);
+					} while (LinearCongruence.gcd(terms[i], moduli[i]) != 1);
+					break;
+				case PRIME:
+					moduli[i] = prime;
+					terms[i] = 1 + random.nextInt(prime - 1);
+					break;
+				case FIBONACCI:
+					int k = fibCount - 1 - (i % Math.min(8, fibCount - 1));
+					moduli[i] = fib[k];
+					terms[i] = fib[k - 1];
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Builds a solvable system of congruences, sharing the random solution x
+	 */
+	static LinearCongruence[] system(Size size, int count) {
+		Random random = new Random(SEED);
+		long x = random.nextLong() >>> 1;
+		LinearCongruence[] congs = new LinearCongruence[count];
+		for (int i = 0; i < count; i++) {
+			int modulus = 2 + random.nextInt(size.bound - 1);
+			int coefficient = 1 + random.nextInt(modulus - 1);
+			congs[i] = new LinearCongruence(coefficient, (int) LinearCongruence.mulMod(x % modulus, coefficient, modulus), modulus);
+		}
+		return congs;
+	}
+
+	static int largestPrime(int bound) {
+		for (int p = bound; ; p--) {
+			if (p % 2 == 0 && p != 2) continue;
+			boolean prime = true;
+			for (int d = 3; (long) d * d <= p; d += 2) {
+				if (p % d == 0) {
+					prime = false;
+					break;
+				}
+			}
+			if (prime) return p;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package beadring;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the gcd and multiplicative inverse kernels, per single pair
+ *
+ * @author Project2100
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(BenchmarkData.BATCH)
+public class ModularArithmeticBenchmark {
+
+	@State(Scope.Thread)
+	public static class Pairs {
+
+		@Param({"SMALL", "SHORT", "INT"})
+		BenchmarkData.Size size;
+
+		@Param({"UNIFORM", "PRIME", "FIBONACCI"})
+		BenchmarkData.Distribution distribution;
+
+		final int[] terms = new int[BenchmarkData.BATCH];
+		final int[] moduli = new int[BenchmarkData.BATCH];
+		final int[] scratch = new int[BenchmarkData.BATCH];
+
+		@Setup
+		public void setup() {
+			BenchmarkData.pairs(size, distribution, terms, moduli);
+		}
+	}
+
+	/**
+	 * The alpha recursions overflow past Short.MAX_VALUE, and the naive inverse is linear in the modulus
+	 */
+	@State(Scope.Thread)
+	public static class ShortPairs {
+
+		@Param({"SMALL", "SHORT"})
+		BenchmarkData.Size size;
+
+		@Param({"UNIFORM", "PRIME", "FIBONACCI"})
+		BenchmarkData.Distribution distribution;
+
+		final int[] terms = new int[BenchmarkData.BATCH];
+		final int[] moduli = new int[BenchmarkData.BATCH];
+
+		@Setup
+		public void setup() {
+			BenchmarkData.pairs(size, distribution, terms, moduli);
+		}
+	}
+
+	@Benchmark
+	public void gcd(Pairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.gcd(p.terms[i], p.moduli[i]));
+		}
+	}
+
+	@Benchmark
+	public void gcdeuclid(Pairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.gcdeuclid(p.terms[i], p.moduli[i]));
+		}
+	}
+
+	/**
+	 * Every pair is coprime, so neither early exit is taken: this is the worst case
+	 */
+	@Benchmark
+	public void isCoprime(Pairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.isCoprime(p.terms[i], p.moduli[i]));
+		}
+	}
+
+	/**
+	 * All terms against one ring modulus, as in BeadRing coloring: half the pairs are rejected by parity alone
+	 */
+	@Benchmark
+	public void ringCoprimality(ShortPairs p, Blackhole bh) {
+		int modulus = p.moduli[0] & ~1;
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.isCoprime(i, modulus));
+		}
+	}
+
+	@Benchmark
+	public void ringCoprimalityEuclid(ShortPairs p, Blackhole bh) {
+		int modulus = p.moduli[0] & ~1;
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.gcdeuclid(i, modulus) == 1);
+		}
+	}
+
+	@Benchmark
+	public void fmieuclid(Pairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.fmieuclid(p.terms[i], p.moduli[i]));
+		}
+	}
+
+	/**
+	 * Only meaningful with a single modulus, where the whole batch is inverted at once
+	 */
+	@Benchmark
+	public int[] fmibatch(Pairs p) {
+		System.arraycopy(p.terms, 0, p.scratch, 0, BenchmarkData.BATCH);
+		LinearCongruence.fmibatch(p.scratch, BenchmarkData.BATCH, p.moduli[0]);
+		return p.scratch;
+	}
+
+	/**
+	 * Chained products under the first modulus of the batch, with Barrett reduction
+	 */
+	@Benchmark
+	public int modContextMul(Pairs p) {
+		ModContext ctx = new ModContext(p.moduli[0]);
+		int product = ctx.reduce(1);
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			product = ctx.mul(product, ctx.reduce(p.terms[i]));
+		}
+		return product;
+	}
+
+	/**
+	 * Same as {@link #modContextMul}, with hardware remainders
+	 */
+	@Benchmark
+	public int remainderMul(Pairs p) {
+		int modulus = p.moduli[0];
+		long product = 1 % modulus;
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			product = product * (p.terms[i] % modulus) % modulus;
+		}
+		return (int) product;
+	}
+
+	@Benchmark
+	public void fmi1(ShortPairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.fmi1(p.terms[i], p.moduli[i]));
+		}
+	}
+
+	@Benchmark
+	public void fmirec1(ShortPairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.fmiclean(p.terms[i], p.moduli[i], 1));
+		}
+	}
+
+	@Benchmark
+	public void fmirec2(ShortPairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.fmiclean(p.terms[i], p.moduli[i], 2));
+		}
+	}
+
+	@Benchmark
+	public void fmiiter(ShortPairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(LinearCongruence.fmiclean(p.terms[i], p.moduli[i], 3));
+		}
+	}
+
+	@Benchmark
+	public void inverseTable(ShortPairs p, Blackhole bh) {
+		for (int i = 0; i < BenchmarkData.BATCH; i++) {
+			bh.consume(InverseTable.of(p.moduli[i]).get(p.terms[i]));
+		}
+	}
+}
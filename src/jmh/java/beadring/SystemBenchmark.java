@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package beadring;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the congruence system solvers, per whole system
+ *
+ * @author Project2100
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SystemBenchmark {
+
+	@State(Scope.Thread)
+	public static class Systems {
+
+		@Param({"SMALL", "SHORT", "INT"})
+		BenchmarkData.Size size;
+
+		@Param({"3", "64", "4096"})
+		int count;
+
+		LinearCongruence[] congs;
+
+		@Setup
+		public void setup() {
+			congs = BenchmarkData.system(size, count);
+		}
+	}
+
+	/**
+	 * The stepwise merge is linear in the lcm of the moduli, hence only small systems
+	 */
+	@State(Scope.Thread)
+	public static class SmallSystems {
+
+		@Param({"2", "3"})
+		int count;
+
+		LinearCongruence[] congs;
+
+		@Setup
+		public void setup() {
+			congs = BenchmarkData.system(BenchmarkData.Size.SMALL, count);
+		}
+	}
+
+	/**
+	 * Candidates for bulk verification, half of them solutions of the system
+	 */
+	@State(Scope.Thread)
+	public static class Candidates {
+
+		@Param({"SHORT", "INT"})
+		BenchmarkData.Size size;
+
+		CongruenceSystem system;
+		long[] candidates;
+
+		@Setup
+		public void setup() {
+			system = new CongruenceSystem();
+			for (LinearCongruence cong : BenchmarkData.system(size, 3)) system.add(cong);
+			LinearCongruence.Solution solution = LinearCongruence.solveCongruenceSystem(system, SolverTrace.NONE, 2);
+
+			Random random = new Random(42);
+			candidates = new long[1 << 16];
+			for (int i = 0; i < candidates.length; i++) {
+				candidates[i] = solution != null && (i & 1) == 0 && !solution.isBig()
+						? solution.value + solution.baseMod * random.nextInt(1 << 16)
+						: random.nextLong();
+			}
+		}
+	}
+
+	/**
+	 * Pairwise coprime moduli, so every system has solutions; dense moduli go through the word patterns, sparse ones
+	 * through the strided bit sets
+	 */
+	@State(Scope.Thread)
+	public static class Sieves {
+
+		@Param({"DENSE", "SPARSE", "MIXED"})
+		String moduli;
+
+		@Param({"4000000000"})
+		long n;
+
+		CongruenceSystem system;
+
+		@Setup
+		public void setup() {
+			int[] values;
+			switch (moduli) {
+				case "DENSE":
+					values = new int[]{7, 32, 45, 59};
+					break;
+				case "SPARSE":
+					values = new int[]{1009, 10007};
+					break;
+				default:
+					values = new int[]{7, 32, 10007};
+			}
+
+			Random random = new Random(42);
+			system = new CongruenceSystem();
+			for (int modulus : values) system.add(1, random.nextInt(modulus), modulus);
+		}
+	}
+
+	@Benchmark
+	public LinearCongruence.Solution stepwise(SmallSystems s) {
+		return LinearCongruence.solveCongruenceSystem(s.congs, s.count, SolverTrace.NONE, 1);
+	}
+
+	@Benchmark
+	public LinearCongruence.Solution garnerSmall(SmallSystems s) {
+		return LinearCongruence.solveCongruenceSystem(s.congs, s.count, SolverTrace.NONE, 2);
+	}
+
+	@Benchmark
+	public LinearCongruence.Solution garner(Systems s) {
+		return LinearCongruence.solveCongruenceSystem(s.congs, s.count, SolverTrace.NONE, 2);
+	}
+
+	@Benchmark
+	public LinearCongruence.Solution productTree(Systems s) {
+		return ProductTreeSolver.solve(s.congs, s.count);
+	}
+
+	@Benchmark
+	public long[] verify(Candidates c) {
+		return SolutionVerifier.verify(c.system, c.candidates);
+	}
+
+	/**
+	 * Baseline for {@link #verify(Candidates)}: one remainder per candidate per equation
+	 */
+	@Benchmark
+	public long[] verifyRemainder(Candidates c) {
+		long[] mask = new long[(c.candidates.length + 63) >>> 6];
+		for (int i = 0; i < c.candidates.length; i++) {
+			boolean satisfied = true;
+			for (int e = 0; e < c.system.size(); e++) {
+				long modulus = c.system.modulus(e);
+				satisfied &= Math.floorMod(c.system.coefficient(e) * Math.floorMod(c.candidates[i], modulus), modulus)
+						== Math.floorMod(c.system.known(e), modulus);
+			}
+			if (satisfied) mask[i >>> 6] |= 1L << i;
+		}
+		return mask;
+	}
+
+	/**
+	 * A whole interval of a few billion values, a bitset of about 500 MB per invocation
+	 */
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	@Warmup(iterations = 2)
+	@Measurement(iterations = 5)
+	@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+	public long[] sieve(Sieves s) {
+		return CongruenceSieve.sieve(s.system, s.n);
+	}
+}
@@ -0,0 +1,320 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless solver, streaming congruence systems from text
+ *
+ * Input has one system per line, congruences separated by semicolons, each congruence being its coefficient, known
+ * term and modulus separated by blanks; "7 3 5; 2 4 8" stands for 7x ~ 3 (mod 5), 2x ~ 4 (mod 8). Blank lines and
+ * lines starting with '#' are skipped.
+ *
+ * Output has one line per system: "value baseMod period" for solvable systems, "unsolvable" otherwise, or "error: "
+ * followed by the reason for malformed lines, in the same order as the input. Throughput and latency percentiles are
+ * reported at the end. Solutions go through the shared {@link SolutionCache}, so repeated systems are solved once.
+ *
+ * Lines are read in chunks, each chunk being solved on a worker thread with a BatchSolver of its own; results are
+ * written in input order, and the reader stalls whenever it gets too many chunks ahead of the writer, so memory stays
+ * bounded regardless of the input size.
+ *
+ * @author Project2100
+ */
+class BatchSolver {
+
+	/**
+	 * Lines per chunk handed to a worker
+	 */
+	static final int CHUNK = 1024;
+
+	/**
+	 * Chunks in flight per worker, before the reader waits for the writer
+	 */
+	static final int CHUNKS_PER_WORKER = 2;
+
+	private LinearCongruence[] congs = new LinearCongruence[16];
+	private final int[] terms = new int[3];
+	private final LatencyHistogram latencies = new LatencyHistogram();
+	private long systems, unsolvable, errors;
+
+	/**
+	 * Solves every system read from in, writing the results to out and the statistics to report
+	 *
+	 * @param threads The number of workers; with 1, systems are solved on the calling thread
+	 * @throws IOException If reading or writing fails
+	 */
+	static void run(Reader in, Writer out, PrintStream report, int threads) throws IOException {
+		BatchSolver totals = new BatchSolver();
+		BufferedReader reader = new BufferedReader(in, 1 << 16);
+
+		long start = System.nanoTime();
+		if (threads <= 1) {
+			StringBuilder line = new StringBuilder(64);
+			String text;
+			while ((text = reader.readLine()) != null) {
+				line.setLength(0);
+				if (totals.process(text, line)) {
+					line.append('\n');
+					out.append(line);
+				}
+			}
+		}
+		else {
+			ExecutorService workers = Executors.newFixedThreadPool(threads);
+			ArrayDeque<Future<Chunk>> inFlight = new ArrayDeque<>();
+			try {
+				String[] lines;
+				while ((lines = readChunk(reader)) != null) {
+					if (inFlight.size() >= threads * CHUNKS_PER_WORKER) {
+						totals.write(inFlight.poll(), out);
+					}
+					String[] chunk = lines;
+					inFlight.add(workers.submit(() -> solveChunk(chunk)));
+				}
+				while (!inFlight.isEmpty()) {
+					totals.write(inFlight.poll(), out);
+				}
+			}
+			finally {
+				workers.shutdownNow();
+			}
+		}
+		out.flush();
+		totals.report(report, System.nanoTime() - start);
+	}
+
+	/**
+	 * The output of a chunk of lines, with the statistics gathered while solving them
+	 */
+	private static final class Chunk {
+		final BatchSolver solver = new BatchSolver();
+		final StringBuilder output = new StringBuilder(CHUNK * 32);
+	}
+
+	/**
+	 * @return Up to CHUNK lines, or null at the end of the input
+	 */
+	private static String[] readChunk(BufferedReader reader) throws IOException {
+		String[] lines = new String[CHUNK];
+		int count = 0;
+		while (count < CHUNK && (lines[count] = reader.readLine()) != null) count++;
+		return count == 0 ? null : count == CHUNK ? lines : Arrays.copyOf(lines, count);
+	}
+
+	private static Chunk solveChunk(String[] lines) {
+		Chunk chunk = new Chunk();
+		for (String text : lines) {
+			if (chunk.solver.process(text, chunk.output)) chunk.output.append('\n');
+		}
+		return chunk;
+	}
+
+	/**
+	 * Waits for a chunk, writes its output and adds up its statistics
+	 */
+	private void write(Future<Chunk> pending, Writer out) throws IOException {
+		Chunk chunk;
+		try {
+			chunk = pending.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a chunk");
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException("Worker failed", ex.getCause());
+		}
+		out.append(chunk.output);
+		systems += chunk.solver.systems;
+		unsolvable += chunk.solver.unsolvable;
+		errors += chunk.solver.errors;
+		latencies.add(chunk.solver.latencies);
+	}
+
+	/**
+	 * Solves one line of input
+	 *
+	 * @param text The input line
+	 * @param result Where to append the result line
+	 * @return false if the line was skipped
+	 */
+	boolean process(String text, StringBuilder result) {
+		int count;
+		try {
+			count = parse(text);
+		}
+		catch (IllegalArgumentException ex) {
+			errors++;
+			result.append("error: ").append(ex.getMessage());
+			return true;
+		}
+		if (count == 0) return false;
+
+		long start = System.nanoTime();
+		LinearCongruence.Solution solution = SolutionCache.SHARED.solve(congs, count);
+		latencies.record(System.nanoTime() - start);
+		systems++;
+
+		if (solution == null) {
+			unsolvable++;
+			result.append("unsolvable");
+		}
+		else if (solution.isBig()) {
+			result.append(solution.bigValue).append(' ').append(solution.bigBaseMod).append(' ').append(solution.bigPeriod);
+		}
+		else {
+			result.append(solution.value).append(' ').append(solution.baseMod).append(' ').append(solution.period);
+		}
+		return true;
+	}
+
+	/**
+	 * Parses a line into the congruence buffer
+	 *
+	 * @return The number of congruences, 0 for lines to skip
+	 * @throws IllegalArgumentException If the line is malformed
+	 */
+	private int parse(String text) {
+		int pos = skipBlanks(text, 0);
+		if (pos == text.length() || text.charAt(pos) == '#') return 0;
+
+		int count = 0;
+		while (true) {
+			for (int t = 0; t < 3; t++) {
+				pos = skipBlanks(text, pos);
+				int end = pos;
+				if (end < text.length() && (text.charAt(end) == '-' || text.charAt(end) == '+')) end++;
+				while (end < text.length() && Character.isDigit(text.charAt(end))) end++;
+				if (end == pos) {
+					throw new IllegalArgumentException("congruence no." + count + ": expected 3 integers");
+				}
+				try {
+					terms[t] = Integer.parseInt(text, pos, end, 10);
+				}
+				catch (NumberFormatException ex) {
+					throw new IllegalArgumentException("congruence no." + count + ": " + ex.getMessage());
+				}
+				pos = end;
+			}
+			if (count == congs.length) {
+				congs = Arrays.copyOf(congs, count * 2);
+			}
+			try {
+				congs[count] = new LinearCongruence(terms[0], terms[1], terms[2]);
+			}
+			catch (IllegalArgumentException ex) {
+				// Bad moduli are rejected by the congruence itself
+				throw new IllegalArgumentException("congruence no." + count + ": " + ex.getMessage());
+			}
+			count++;
+
+			pos = skipBlanks(text, pos);
+			if (pos == text.length()) return count;
+			if (text.charAt(pos) != ';') {
+				throw new IllegalArgumentException("congruence no." + (count - 1) + ": unexpected '" + text.charAt(pos) + "'");
+			}
+			pos++;
+		}
+	}
+
+	private static int skipBlanks(String text, int pos) {
+		while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+		return pos;
+	}
+
+	private void report(PrintStream report, long elapsed) {
+		report.format("Systems: %d solved, %d unsolvable, %d malformed lines%n", systems - unsolvable, unsolvable, errors);
+		report.format("Elapsed: %.3f s, throughput: %.0f systems/s%n", elapsed / 1e9, systems / (elapsed / 1e9));
+		report.format("Solve latency (us): p50 %.3f, p90 %.3f, p99 %.3f, p99.9 %.3f, max %.3f%n",
+				latencies.percentile(50) / 1e3, latencies.percentile(90) / 1e3, latencies.percentile(99) / 1e3,
+				latencies.percentile(99.9) / 1e3, latencies.max / 1e3);
+		report.format("Solution cache: %d hits, %d misses%n", SolutionCache.SHARED.hits(), SolutionCache.SHARED.misses());
+	}
+
+	/**
+	 * Fixed-size log-linear histogram: every power of two is split in 16 buckets, so that recorded values are kept
+	 * within 1/16 of their magnitude, in constant memory
+	 */
+	static class LatencyHistogram {
+
+		private static final int SUB_BITS = 4;
+		private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+		private final long[] counts = new long[64 * SUB_BUCKETS];
+		long total, max;
+
+		void add(LatencyHistogram other) {
+			for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+			total += other.total;
+			max = Math.max(max, other.max);
+		}
+
+		void record(long value) {
+			if (value < 0) value = 0;
+			counts[index(value)]++;
+			total++;
+			if (value > max) max = value;
+		}
+
+		private static int index(long value) {
+			if (value < SUB_BUCKETS) return (int) value;
+			int exponent = 63 - Long.numberOfLeadingZeros(value);
+			int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+			return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+		}
+
+		private static long lowerBound(int index) {
+			if (index < SUB_BUCKETS) return index;
+			int exponent = index / SUB_BUCKETS + SUB_BITS - 1;
+			return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BITS);
+		}
+
+		/**
+		 * @param percent A percentage in [0, 100]
+		 * @return The lower bound of the bucket holding the given percentile, or 0 if nothing was recorded
+		 */
+		long percentile(double percent) {
+			long rank = (long) Math.ceil(total * percent / 100);
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank && seen > 0) return lowerBound(i);
+			}
+			return 0;
+		}
+	}
+}
@@ -27,13 +27,16 @@ package beadring;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Ellipse2D;
 import java.awt.geom.FlatteningPathIterator;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 
 /**
+ * A circle, centered in (cx, cy)
+ *
+ * Path iterators are recycled: the last one handed out is rewound and returned again once it has been iterated to the
+ * end, as Java2D does when filling or drawing, and a new one is built only while the previous is still in use.
  *
  * @author Project2100
  */
@@ -41,6 +44,8 @@ class Bead implements Shape {
 
 	double cx, cy, radius;
 
+	private EllipseIterator iterator;
+
 	public Bead() {
 		this(0, 0, 1);
 	}
@@ -71,29 +76,45 @@ class Bead implements Shape {
 		return contains(p.getX(), p.getY());
 	}
 
+	/**
+	 * Tells whether the point of the rectangle closest to the center lies in this circle
+	 */
 	@Override
 	public boolean intersects(double x, double y, double w, double h) {
-		throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+		if (w <= 0 || h <= 0) return false;
+		double dx = Math.max(x, Math.min(cx, x + w)) - cx;
+		double dy = Math.max(y, Math.min(cy, y + h)) - cy;
+		return dx * dx + dy * dy <= radius * radius;
 	}
 
 	@Override
 	public boolean intersects(Rectangle2D r) {
-		throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+		return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
 	}
 
+	/**
+	 * Tells whether the four corners of the rectangle lie in this circle, which is enough since circles are convex
+	 */
 	@Override
 	public boolean contains(double x, double y, double w, double h) {
-		throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+		if (w <= 0 || h <= 0) return false;
+		return contains(x, y) && contains(x + w, y) && contains(x, y + h) && contains(x + w, y + h);
 	}
 
 	@Override
 	public boolean contains(Rectangle2D r) {
-		throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+		return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
 	}
 
 	@Override
 	public PathIterator getPathIterator(AffineTransform at) {
-		return new EllipseIterator(new Ellipse2D.Double(cx - radius, cy - radius, radius * 2, radius * 2), at);
+		if (iterator == null || !iterator.isDone()) {
+			iterator = new EllipseIterator(cx - radius, cy - radius, radius * 2, radius * 2, at);
+		}
+		else {
+			iterator.reset(cx - radius, cy - radius, radius * 2, radius * 2, at);
+		}
+		return iterator;
 	}
 
 	@Override
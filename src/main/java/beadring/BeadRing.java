@@ -28,11 +28,17 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import javax.swing.JPanel;
@@ -71,10 +77,26 @@ class BeadRing extends JPanel {
 	 */
 	private static final int EVENT_DELAY = 10;
 
-	Bead[] beads;
-	Color[] beadColors;
+	/**
+	 * Bead colors, by color class
+	 */
+	private static final Color[] PALETTE = new Color[3];
+
+	static {
+		PALETTE[RingGeometry.ZERO] = new Color(0);
+		PALETTE[RingGeometry.COCOMPOSITE] = new Color(128, 0, 0);
+		PALETTE[RingGeometry.COPRIME] = new Color(0, 128, 0);
+	}
+
+	final int modulus;
+
+	// Laid out at angle 0, the current angle is applied by rotation
+	final RingGeometry geometry;
 	Bead bottom;
 
+	// Rotation by currentAngle around the center of the ring
+	private final AffineTransform rotation = new AffineTransform();
+
 	private Map<Integer, Integer> inversionMappings;
 	private boolean visiblePolygon;
 	private boolean visibleRing;
@@ -93,6 +115,17 @@ class BeadRing extends JPanel {
 
 	final int beadRadius;
 
+	// Index of the bottom marker among the sprites, after the color classes
+	private static final int MARKER = 3;
+
+	// Beads pre-rendered by color class, then the marker, valid for the rendering state they were drawn with, see
+	// validateSprites
+	private final BufferedImage[] sprites = new BufferedImage[MARKER + 1];
+	private GraphicsConfiguration spriteConfig;
+	private Object spriteAntialiasing;
+	private double spriteScale, spriteRadius;
+	private final AffineTransform spriteTransform = new AffineTransform();
+
 	public BeadRing(int mod) {
 		this(mod, DEFAULT_BG, 15);
 	}
@@ -117,33 +150,18 @@ class BeadRing extends JPanel {
 		// Rigid margin between ring and panel border
 		this.margin = margin;
 
-		beads = new Bead[mod];
-		for (int i = 0; i < beads.length; i++) {
-			beads[i] = new Bead();
-			beads[i].radius = beadRadius;
-		}
+		modulus = mod;
+		geometry = new RingGeometry(mod, beadRadius);
 		bottom = new Bead();
 		bottom.radius = beadRadius + 3;
 
 
-		beadColors = new Color[mod];
-		beadColors[0] = new Color(0);
-		Color cocomposite = new Color(128, 0, 0), coprime = new Color(0, 128, 0);
-		for (int i = 1; i < beadColors.length; i++)
-			beadColors[i] = LinearCongruence.gcd(i, mod) == 1 ? coprime : cocomposite;
-
-
 		// Tooltip handler
 		super.addMouseMotionListener(new MouseMotionAdapter() {
 			@Override
 			public void mouseMoved(MouseEvent e) {
-				for (int i = 0; i < beads.length; i++) {
-					if (beads[i].contains(e.getX(), e.getY())) {
-						BeadRing.super.setToolTipText("" + i);
-						return;
-					}
-				}
-				BeadRing.this.setToolTipText(null);
+				int i = beadAt(e.getX(), e.getY());
+				BeadRing.super.setToolTipText(i >= 0 ? "" + i : null);
 			}
 		});
 
@@ -158,6 +176,7 @@ class BeadRing extends JPanel {
 				
 				bottom.cx = offsetx;
 				bottom.cy = offsety + radiusLength;
+				layoutDots();
 				positionDots(currentAngle);
 			}
 		});
@@ -183,32 +202,42 @@ class BeadRing extends JPanel {
 
 		// Paint the beads
 		Graphics2D painter0 = (Graphics2D) painter;
+		validateSprites(painter0);
+		double m00 = rotation.getScaleX(), m01 = rotation.getShearX(), m02 = rotation.getTranslateX();
+		double m10 = rotation.getShearY(), m11 = rotation.getScaleY(), m12 = rotation.getTranslateY();
+		double[] xs = geometry.x, ys = geometry.y, radii = geometry.radius;
+		byte[] colorClasses = geometry.colorClass;
 		// Do it in reverse to bring 0 up to front z-wise
-		for (int i = beads.length - 1; i >= 0; i--) {
-			painter0.setColor(beadColors[i]);
-			painter0.fill(beads[i]);
+		for (int i = geometry.size - 1; i >= 0; i--) {
+			blit(painter0, sprite(colorClasses[i]), m00 * xs[i] + m01 * ys[i] + m02, m10 * xs[i] + m11 * ys[i] + m12, radii[i]);
 		}
 
 		// Paint the bottom contour
-		painter0.setColor(Color.gray);
-		painter0.draw(bottom);
-
-		// Paint the inversion edges
-		painter0.setColor(Color.blue);
-		for (Map.Entry<Integer, Integer> entry : inversionMappings.entrySet()) {
-			Bead bead1 = beads[entry.getKey()];
-			Bead bead2 = beads[entry.getValue()];
-			painter0.drawLine((int) bead1.cx, (int) bead1.cy, (int) bead2.cx, (int) bead2.cy);
-		}
-
-		// Paint the polygon connecting the beads
-		painter0.setColor(Color.yellow);
-		if (visiblePolygon) {
-			for (int i = 0; i < beads.length - 1; i++) {
-				painter0.drawLine((int) beads[i].cx, (int) beads[i].cy, (int) beads[i + 1].cx, (int) beads[i + 1].cy);
+		blit(painter0, sprite(MARKER), bottom.cx, bottom.cy, spriteExtent(MARKER));
+
+		// Edges join beads, so they turn along with them; the rotated painter is only needed when there are any
+		if (visiblePolygon || !inversionMappings.isEmpty()) {
+			Graphics2D rotated = (Graphics2D) painter0.create();
+			rotated.transform(rotation);
+
+			// Paint the inversion edges
+			rotated.setColor(Color.blue);
+			for (Map.Entry<Integer, Integer> entry : inversionMappings.entrySet()) {
+				int bead1 = entry.getKey(), bead2 = entry.getValue();
+				rotated.drawLine((int) xs[bead1], (int) ys[bead1], (int) xs[bead2], (int) ys[bead2]);
 			}
-			painter0.drawLine((int) beads[beads.length - 1].cx, (int) beads[beads.length - 1].cy, (int) beads[0].cx, (int) beads[0].cy);
 
+			// Paint the polygon connecting the beads
+			rotated.setColor(Color.yellow);
+			if (visiblePolygon) {
+				int last = geometry.size - 1;
+				for (int i = 0; i < last; i++) {
+					rotated.drawLine((int) xs[i], (int) ys[i], (int) xs[i + 1], (int) ys[i + 1]);
+				}
+				rotated.drawLine((int) xs[last], (int) ys[last], (int) xs[0], (int) ys[0]);
+
+			}
+			rotated.dispose();
 		}
 
 		// Paint the circle underlying the beads
@@ -220,19 +249,137 @@ class BeadRing extends JPanel {
 
 
 	/**
-	 * Positions the beads and repaints the panel
+	 * Drops the sprites if they were drawn for a different device, antialiasing setting or bead size than the ones of
+	 * painter
 	 *
-	 * @param angle
+	 * The scale is the one of the device, read only when the device changes, since copying the transform of painter
+	 * would allocate on every frame
 	 */
-	final void positionDots(double angle) {
+	private void validateSprites(Graphics2D painter) {
+		GraphicsConfiguration config = painter.getDeviceConfiguration();
+		Object antialiasing = painter.getRenderingHint(RenderingHints.KEY_ANTIALIASING);
+
+		if (config != spriteConfig || antialiasing != spriteAntialiasing || beadRadius != spriteRadius) {
+			Arrays.fill(sprites, null);
+			AffineTransform transform = config.getDefaultTransform();
+			double scale = Math.max(Math.abs(transform.getScaleX()), Math.abs(transform.getScaleY()));
+			spriteConfig = config;
+			spriteAntialiasing = antialiasing;
+			spriteScale = scale == 0 ? 1 : scale;
+			spriteRadius = beadRadius;
+		}
+	}
 
-		// Compute all points
-		double dotRad = angle;
-		for (Bead bead : beads) {
-			bead.cx = offsetx - radiusLength * Math.sin(dotRad);
-			bead.cy = offsety + radiusLength * Math.cos(dotRad);
-			dotRad += unitAngle;
+	/**
+	 * @return Half the side of the square the sprite at index covers, the stroke of the marker sticking out of its radius
+	 */
+	private double spriteExtent(int index) {
+		return index == MARKER ? bottom.radius + 1 : spriteRadius;
+	}
+
+	/**
+	 * Returns a bead of the given color class, or the marker, rasterized once at device resolution with a transparent
+	 * pixel of padding; beads all have the same radius
+	 */
+	private BufferedImage sprite(int index) {
+		BufferedImage sprite = sprites[index];
+		if (sprite != null) return sprite;
+
+		double extent = spriteExtent(index);
+		int size = (int) Math.ceil(2 * extent * spriteScale) + 2;
+		sprite = spriteConfig.createCompatibleImage(size, size, Transparency.TRANSLUCENT);
+		Graphics2D painter = sprite.createGraphics();
+		if (spriteAntialiasing != null) painter.setRenderingHint(RenderingHints.KEY_ANTIALIASING, spriteAntialiasing);
+		painter.translate(1, 1);
+		painter.scale(spriteScale, spriteScale);
+		if (index == MARKER) {
+			painter.setColor(Color.gray);
+			painter.draw(new Bead(extent, extent, bottom.radius));
 		}
+		else {
+			painter.setColor(PALETTE[index]);
+			painter.fill(new Bead(extent, extent, spriteRadius));
+		}
+		painter.dispose();
+
+		sprites[index] = sprite;
+		return sprite;
+	}
+
+	/**
+	 * Draws a sprite centered in (cx, cy), snapped to device pixels so that the blit is a plain copy
+	 */
+	private void blit(Graphics2D painter, BufferedImage sprite, double cx, double cy, double extent) {
+		double pad = 1 / spriteScale;
+		spriteTransform.setToTranslation(
+				Math.rint((cx - extent) * spriteScale) / spriteScale - pad,
+				Math.rint((cy - extent) * spriteScale) / spriteScale - pad);
+		spriteTransform.scale(pad, pad);
+		painter.drawImage(sprite, spriteTransform, null);
+	}
+
+	/**
+	 * Drops the sprites along with the previous look and feel
+	 */
+	@Override
+	public void updateUI() {
+		super.updateUI();
+		// Called by the JPanel constructor, before fields are initialized
+		if (sprites != null) Arrays.fill(sprites, null);
+	}
+
+	/**
+	 * Finds the topmost bead under a point, in constant time
+	 *
+	 * A point at distance rho from the center lies in the beads whose centers are within alpha of its angle, where by
+	 * the law of cosines cos(alpha) = (R^2 + rho^2 - r^2) / (2 R rho), R being the radius of the ring and r the one of
+	 * the beads: their indices form a window, derived from currentAngle and unitAngle, whose ends are then checked
+	 * against rounding. Beads are painted from the last to the first, so the topmost one is the first of the window, or
+	 * 0 if the window wraps around it.
+	 *
+	 * @return The index of the topmost bead containing (px, py), or -1 if there is none
+	 */
+	int beadAt(double px, double py) {
+		double dx = px - offsetx, dy = py - offsety;
+		double rho = Math.hypot(dx, dy);
+		// Panels narrower than their margins get a negative radius, which turns the ring upside down
+		double ringRadius = Math.abs(radiusLength);
+		if (Math.abs(rho - ringRadius) > beadRadius) return -1;
+
+		double cosAlpha = (ringRadius * ringRadius + rho * rho - beadRadius * beadRadius) / (2 * ringRadius * rho);
+		double alpha = rho == 0 || ringRadius == 0 || cosAlpha <= -1 ? Math.PI : Math.acos(Math.min(cosAlpha, 1));
+
+		// Bead i lies at currentAngle + i * unitAngle, clockwise from the bottom
+		double theta = Math.atan2(-dx, dy) - currentAngle - (radiusLength < 0 ? Math.PI : 0);
+		long first = (long) Math.ceil((theta - alpha) / unitAngle) - 1;
+		long last = (long) Math.floor((theta + alpha) / unitAngle) + 1;
+
+		// Checks run in the frame the beads are laid out in, rotating by -currentAngle
+		double cos = Math.cos(currentAngle), sin = Math.sin(currentAngle);
+		double x = offsetx + dx * cos + dy * sin, y = offsety - dx * sin + dy * cos;
+		while (first <= last && !geometry.contains((int) Math.floorMod(first, (long) modulus), x, y)) first++;
+		while (last >= first && !geometry.contains((int) Math.floorMod(last, (long) modulus), x, y)) last--;
+
+		if (first > last) return -1;
+		if (Math.floorDiv(first, modulus) != Math.floorDiv(last, modulus)) return 0;
+		return (int) Math.floorMod(first, (long) modulus);
+	}
+
+	/**
+	 * Lays the beads out at angle 0, bead i being i unit angles away from the bottom; only needed when the ring changes
+	 * size
+	 */
+	private void layoutDots() {
+		geometry.layout(offsetx, offsety, radiusLength);
+	}
+
+	/**
+	 * Rotates the beads to the given angle and repaints the panel; the layout is left as is, so this takes constant time
+	 *
+	 * @param angle
+	 */
+	final void positionDots(double angle) {
+		rotation.setToRotation(angle, offsetx, offsety);
 		repaint();
 	}
 
@@ -271,15 +418,16 @@ class BeadRing extends JPanel {
 		a.start();
 	}
 
-	static final double computeRadians(int term, int modulus) {
+	static final double computeRadians(long term, int modulus) {
 		return ((double) term) * Math.PI * 2 / modulus;
 	}
 
 
 	void traceInversions() {
-		for (int i = 2; i < beads.length; i++) {
-			if (LinearCongruence.gcd(i, beads.length) == 1 && !inversionMappings.containsKey(i)) {
-				int inverse = LinearCongruence.fmiclean(i, beads.length, 2);
+		InverseTable inverses = InverseTable.of(modulus);
+		for (int i = 2; i < modulus; i++) {
+			int inverse = inverses.get(i);
+			if (inverse >= 0 && !inversionMappings.containsKey(i)) {
 				inversionMappings.put(i, inverse);
 				inversionMappings.put(inverse, i);
 			}
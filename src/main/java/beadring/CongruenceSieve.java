@@ -0,0 +1,185 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Finds every x in [0, n) satisfying a system, as a bitset, bit x being set iff x satisfies every equation
+ *
+ * Each equation is first reduced to x ~ value (mod baseMod), then marked over the bitset one block at a time, blocks
+ * being sized to fit in the L1 cache and sieved in parallel:
+ * <ul>
+ *     <li>moduli up to 64 mark every word, with a fixed pattern shifted by the phase of the word; the phase goes down
+ *     by 64 mod baseMod from one word to the next</li>
+ *     <li>the largest of the larger moduli marks at most one bit per word, stepping through its residues</li>
+ *     <li>any other larger modulus only tests the bits still set, which are few by then</li>
+ * </ul>
+ *
+ * @author Project2100
+ */
+final class CongruenceSieve {
+
+	/**
+	 * Words per block, that is 32 KiB
+	 */
+	static final int BLOCK_WORDS = 1 << 12;
+
+	// PATTERNS[m] has bits 0, m, 2m... set
+	private static final long[] PATTERNS = new long[65];
+
+	static {
+		for (int m = 1; m <= 64; m++) {
+			for (int b = 0; b < 64; b += m) PATTERNS[m] |= 1L << b;
+		}
+	}
+
+	private CongruenceSieve() {
+	}
+
+	/**
+	 * @param system The system
+	 * @param n The upper bound of the interval, exclusive
+	 * @return The bitset of the solutions in [0, n), to be read with {@link PrimeSieve#isSet(long[], int)} or
+	 * {@link #forEach(long[], LongConsumer)}
+	 * @throws IllegalArgumentException If the bitset would not fit in an array
+	 */
+	static long[] sieve(CongruenceSystem system, long n) {
+		if (n < 0 || (n + 63) >>> 6 > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Interval length out of range: " + n);
+		}
+		long[] bits = new long[(int) ((n + 63) >>> 6)];
+
+		// Reduced equations, large moduli sorted in decreasing order
+		int count = system.size();
+		long[] values = new long[count];
+		long[] moduli = new long[count];
+		int dense = 0, sparse = count;
+		for (int e = 0; e < count; e++) {
+			LinearCongruence.Solution solution = LinearCongruence.solveLinearCongruence(system.coefficient(e), system.known(e), system.modulus(e));
+			if (solution == null) return bits;
+
+			int slot = solution.baseMod <= 64 ? dense++ : --sparse;
+			values[slot] = solution.value;
+			moduli[slot] = solution.baseMod;
+		}
+		sortDecreasing(values, moduli, sparse, count);
+
+		int first = dense, last = count;
+		IntStream.range(0, (bits.length + BLOCK_WORDS - 1) / BLOCK_WORDS).parallel().forEach(block -> {
+			int from = block * BLOCK_WORDS, to = Math.min(bits.length, from + BLOCK_WORDS);
+			sieveBlock(bits, from, to, values, moduli, first, last);
+		});
+
+		if ((n & 63) != 0) bits[bits.length - 1] &= -1L >>> (64 - (n & 63));
+		return bits;
+	}
+
+	/**
+	 * Sieves words [from, to) of the bitset; equations [0, dense) have moduli up to 64, equations [dense, count) larger
+	 * ones, in decreasing order
+	 */
+	private static void sieveBlock(long[] bits, int from, int to, long[] values, long[] moduli, int dense, int count) {
+		Arrays.fill(bits, from, to, -1L);
+		long start = (long) from << 6;
+
+		for (int e = 0; e < dense; e++) {
+			int m = (int) moduli[e];
+			long pattern = PATTERNS[m];
+			int step = 64 % m;
+			int phase = (int) Math.floorMod(values[e] - start, (long) m);
+			for (int w = from; w < to; w++) {
+				bits[w] &= pattern << phase;
+				phase -= step;
+				if (phase < 0) phase += m;
+			}
+		}
+
+		if (dense == count) return;
+
+		// The largest modulus hits each word at most once
+		long m = moduli[dense];
+		long x = start + Math.floorMod(values[dense] - start, m);
+		for (int w = from; w < to; w++) {
+			if (x >>> 6 == w) {
+				bits[w] &= 1L << x;
+				x += m;
+			}
+			else {
+				bits[w] = 0;
+			}
+		}
+
+		for (int e = dense + 1; e < count; e++) {
+			long value = values[e], modulus = moduli[e];
+			for (int w = from; w < to; w++) {
+				long word = bits[w];
+				while (word != 0) {
+					long lowest = word & -word;
+					if (((long) w << 6 | Long.numberOfTrailingZeros(lowest)) % modulus != value) bits[w] &= ~lowest;
+					word ^= lowest;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Passes every set bit of the bitset to action, in increasing order
+	 */
+	static void forEach(long[] bits, LongConsumer action) {
+		for (int w = 0; w < bits.length; w++) {
+			for (long word = bits[w]; word != 0; word &= word - 1) {
+				action.accept((long) w << 6 | Long.numberOfTrailingZeros(word));
+			}
+		}
+	}
+
+	/**
+	 * @return The number of set bits of the bitset
+	 */
+	static long count(long[] bits) {
+		long count = 0;
+		for (long word : bits) count += Long.bitCount(word);
+		return count;
+	}
+
+	/**
+	 * Insertion sort of the pairs in [from, to) by decreasing modulus; systems are short
+	 */
+	private static void sortDecreasing(long[] values, long[] moduli, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			long value = values[i], modulus = moduli[i];
+			int j = i - 1;
+			for (; j >= from && moduli[j] < modulus; j--) {
+				values[j + 1] = values[j];
+				moduli[j + 1] = moduli[j];
+			}
+			values[j + 1] = value;
+			moduli[j + 1] = modulus;
+		}
+	}
+}
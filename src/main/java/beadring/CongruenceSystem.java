@@ -0,0 +1,181 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A system of linear congruences, stored as parallel arrays of coefficients, known terms and moduli
+ *
+ * Equations are kept in insertion order, moduli always positive, as in {@link LinearCongruence}; the system can be
+ * solved as is, with no object per equation, and viewed as a list of congruences through {@link #asList()}.
+ *
+ * @author Project2100
+ */
+final class CongruenceSystem {
+
+	private int[] coefficients, knowns, moduli;
+	private int size;
+
+	CongruenceSystem() {
+		this(8);
+	}
+
+	CongruenceSystem(int capacity) {
+		coefficients = new int[capacity];
+		knowns = new int[capacity];
+		moduli = new int[capacity];
+	}
+
+	int size() {
+		return size;
+	}
+
+	int coefficient(int index) {
+		return coefficients[checkIndex(index)];
+	}
+
+	int known(int index) {
+		return knowns[checkIndex(index)];
+	}
+
+	int modulus(int index) {
+		return moduli[checkIndex(index)];
+	}
+
+	/**
+	 * @return A new congruence holding the terms of the equation at index
+	 */
+	LinearCongruence get(int index) {
+		checkIndex(index);
+		return new LinearCongruence(coefficients[index], knowns[index], moduli[index]);
+	}
+
+	void add(int coefficient, int known, int modulus) {
+		if (size == moduli.length) {
+			int capacity = Math.max(8, size * 2);
+			coefficients = Arrays.copyOf(coefficients, capacity);
+			knowns = Arrays.copyOf(knowns, capacity);
+			moduli = Arrays.copyOf(moduli, capacity);
+		}
+		store(size++, coefficient, known, modulus);
+	}
+
+	void add(LinearCongruence cong) {
+		add(cong.coefficient, cong.known, cong.modulus);
+	}
+
+	void set(int index, int coefficient, int known, int modulus) {
+		store(checkIndex(index), coefficient, known, modulus);
+	}
+
+	/**
+	 * Removes the equation at index, shifting the following ones down
+	 */
+	void remove(int index) {
+		checkIndex(index);
+		int tail = --size - index;
+		System.arraycopy(coefficients, index + 1, coefficients, index, tail);
+		System.arraycopy(knowns, index + 1, knowns, index, tail);
+		System.arraycopy(moduli, index + 1, moduli, index, tail);
+	}
+
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * @return The equations as new congruences, for the solvers working on objects
+	 */
+	LinearCongruence[] toArray() {
+		LinearCongruence[] congs = new LinearCongruence[size];
+		for (int i = 0; i < size; i++) congs[i] = new LinearCongruence(coefficients[i], knowns[i], moduli[i]);
+		return congs;
+	}
+
+	/**
+	 * Returns a list view of this system: reads build congruences on demand, writes go straight to the arrays
+	 *
+	 * @return A modifiable list backed by this system
+	 */
+	List<LinearCongruence> asList() {
+		return new AbstractList<>() {
+			@Override
+			public LinearCongruence get(int index) {
+				return CongruenceSystem.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+
+			@Override
+			public LinearCongruence set(int index, LinearCongruence cong) {
+				LinearCongruence previous = CongruenceSystem.this.get(index);
+				CongruenceSystem.this.set(index, cong.coefficient, cong.known, cong.modulus);
+				return previous;
+			}
+
+			@Override
+			public void add(int index, LinearCongruence cong) {
+				if (index != size) {
+					throw new UnsupportedOperationException("Equations can only be appended");
+				}
+				CongruenceSystem.this.add(cong);
+				modCount++;
+			}
+
+			@Override
+			public LinearCongruence remove(int index) {
+				LinearCongruence previous = CongruenceSystem.this.get(index);
+				CongruenceSystem.this.remove(index);
+				modCount++;
+				return previous;
+			}
+		};
+	}
+
+	private void store(int index, int coefficient, int known, int modulus) {
+		if (modulus == 0) {
+			throw new IllegalArgumentException("Modulus cannot be 0");
+		}
+		if (modulus == Integer.MIN_VALUE) {
+			throw new IllegalArgumentException("Modulus out of range, its absolute value does not fit in an int");
+		}
+		coefficients[index] = coefficient;
+		knowns[index] = known;
+		moduli[index] = modulus > 0 ? modulus : -modulus;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		return index;
+	}
+}
@@ -44,15 +44,24 @@ class EllipseIterator implements PathIterator {
     int index;
 
     EllipseIterator(Ellipse2D e, AffineTransform at) {
-        this.x = e.getX();
-        this.y = e.getY();
-        this.w = e.getWidth();
-        this.h = e.getHeight();
-        this.affine = at;
+        reset(e.getX(), e.getY(), e.getWidth(), e.getHeight(), at);
+    }
 
-        if (w < 0 || h < 0) {
-            index = 6;
-        }
+    EllipseIterator(double x, double y, double w, double h, AffineTransform at) {
+        reset(x, y, w, h, at);
+    }
+
+    /**
+     * Rewinds this iterator over the ellipse bounded by the given
+     * rectangle, so that the same instance can be iterated again.
+     */
+    void reset(double x, double y, double w, double h, AffineTransform at) {
+        this.x = x;
+        this.y = y;
+        this.w = w;
+        this.h = h;
+        this.affine = at;
+        this.index = (w < 0 || h < 0) ? 6 : 0;
     }
 
 
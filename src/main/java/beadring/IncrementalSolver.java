@@ -0,0 +1,166 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the solution of a congruence system up to date while congruences are added, removed or replaced
+ *
+ * The partial merges are stored in a segment tree over the congruences: every update only re-merges the path from the
+ * affected leaf to the root, that is, O(log n) merges. Since merging is commutative, the leaves need not follow the
+ * order of the system: removals move the last leaf into the vacated slot, and a table maps system indices to slots.
+ *
+ * @author Project2100
+ */
+class IncrementalSolver {
+
+	/**
+	 * The solution of the empty system, neutral with respect to merging
+	 */
+	private static final LinearCongruence.Solution IDENTITY = new LinearCongruence.Solution(0, 1, 1);
+
+	/**
+	 * Marks an unsolvable subtree; merging anything with it stays unsolvable
+	 */
+	private static final LinearCongruence.Solution UNSOLVABLE = new LinearCongruence.Solution(-1, -1, -1);
+
+	// Leaves start at index capacity, node i has children 2i and 2i+1
+	private LinearCongruence.Solution[] tree;
+	private int capacity;
+
+	// System index -> leaf slot, and back
+	private int[] slots;
+	private int[] indices;
+	private int size;
+
+	IncrementalSolver() {
+		this(16);
+	}
+
+	IncrementalSolver(int initialCapacity) {
+		capacity = Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1;
+		tree = new LinearCongruence.Solution[capacity * 2];
+		Arrays.fill(tree, IDENTITY);
+		slots = new int[capacity];
+		indices = new int[capacity];
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Appends a congruence to the system
+	 */
+	void add(LinearCongruence cong) {
+		if (size == capacity) grow();
+		slots[size] = size;
+		indices[size] = size;
+		update(size, leaf(cong));
+		size++;
+	}
+
+	/**
+	 * Replaces the congruence at the given position of the system
+	 */
+	void set(int index, LinearCongruence cong) {
+		update(slots[checkIndex(index)], leaf(cong));
+	}
+
+	/**
+	 * Removes the congruence at the given position of the system; the following ones shift down by one
+	 */
+	void remove(int index) {
+		int slot = slots[checkIndex(index)];
+		int last = size - 1;
+
+		// Move the last leaf into the vacated slot
+		if (slot != last) {
+			int movedIndex = indices[last];
+			slots[movedIndex] = slot;
+			indices[slot] = movedIndex;
+			update(slot, tree[capacity + last]);
+		}
+		update(last, IDENTITY);
+
+		// Shift the indices after the removed one
+		System.arraycopy(slots, index + 1, slots, index, last - index);
+		for (int i = 0; i < last; i++) {
+			if (indices[i] > index) indices[i]--;
+		}
+		size--;
+	}
+
+	/**
+	 * @return The solution of the whole system, or null if it cannot be solved
+	 */
+	LinearCongruence.Solution getSolution() {
+		LinearCongruence.Solution root = tree[1];
+		return root == UNSOLVABLE ? null : root;
+	}
+
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		return index;
+	}
+
+	private static LinearCongruence.Solution leaf(LinearCongruence cong) {
+		LinearCongruence.Solution r = LinearCongruence.solveLinearCongruence(cong, SolverTrace.NONE);
+		return r == null ? UNSOLVABLE : r;
+	}
+
+	private static LinearCongruence.Solution merge(LinearCongruence.Solution r, LinearCongruence.Solution r2) {
+		if (r == UNSOLVABLE || r2 == UNSOLVABLE) return UNSOLVABLE;
+		if (r == IDENTITY) return r2;
+		if (r2 == IDENTITY) return r;
+
+		LinearCongruence.Solution merged = LinearCongruence.merge(r, r2, 2);
+		return merged == null ? UNSOLVABLE : merged;
+	}
+
+	private void update(int slot, LinearCongruence.Solution value) {
+		int node = capacity + slot;
+		tree[node] = value;
+		for (node >>>= 1; node > 0; node >>>= 1) {
+			tree[node] = merge(tree[node * 2], tree[node * 2 + 1]);
+		}
+	}
+
+	private void grow() {
+		LinearCongruence.Solution[] old = tree;
+		capacity *= 2;
+		tree = new LinearCongruence.Solution[capacity * 2];
+		Arrays.fill(tree, IDENTITY);
+		System.arraycopy(old, old.length / 2, tree, capacity, old.length / 2);
+		for (int node = capacity - 1; node > 0; node--) {
+			tree[node] = merge(tree[node * 2], tree[node * 2 + 1]);
+		}
+		slots = Arrays.copyOf(slots, capacity);
+		indices = Arrays.copyOf(indices, capacity);
+	}
+}
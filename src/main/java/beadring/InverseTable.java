@@ -0,0 +1,148 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All the multiplicative inverses modulo a given modulus, computed at once
+ *
+ * Tables are built in linear time with the recurrence:
+ *
+ * Inv(i, n) = -(n / i) * Inv(n % i, n) mod n
+ *
+ * which follows from n = (n / i) * i + n % i, and holds whenever n % i is invertible; this is always the case for prime
+ * moduli, while for composite ones the few terms whose remainder is not invertible fall back to extended Euclid.
+ *
+ * Inverses are stored as shorts whenever the modulus allows it, and tables are kept in a shared LRU cache bounded by
+ * their total size in bytes.
+ *
+ * @author Project2100
+ */
+final class InverseTable {
+
+	/**
+	 * Upper bound for the total size of the cached tables, in bytes
+	 */
+	static final long CACHE_BYTES = 4L << 20;
+
+	private static long cachedBytes = 0;
+	private static final LinkedHashMap<Integer, InverseTable> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+	final int modulus;
+
+	// Exactly one of these is present, -1 marks terms with no inverse
+	private final short[] shortTable;
+	private final int[] intTable;
+
+	private InverseTable(int modulus) {
+		this.modulus = modulus;
+		if (modulus <= Short.MAX_VALUE + 1) {
+			shortTable = new short[modulus];
+			intTable = null;
+		}
+		else {
+			shortTable = null;
+			intTable = new int[modulus];
+		}
+
+		if (modulus == 1) {
+			store(0, 0);
+			return;
+		}
+
+		store(0, -1);
+		store(1, 1);
+		for (int i = 2; i < modulus; i++) {
+			int alphaInverse = get(modulus % i);
+			if (alphaInverse >= 0) {
+				store(i, (int) Math.floorMod(-(long) (modulus / i) * alphaInverse, (long) modulus));
+			}
+			else {
+				// The remainder is not invertible, divisors of the modulus included
+				store(i, LinearCongruence.fmieuclid(i, modulus));
+			}
+		}
+	}
+
+	/**
+	 * Returns the inverse table for the given modulus, building it if it is not cached
+	 *
+	 * @param modulus A positive modulus
+	 * @return The inverse table for modulus
+	 */
+	static InverseTable of(int modulus) {
+		if (modulus <= 0) {
+			throw new IllegalArgumentException("Modulus must be positive");
+		}
+
+		synchronized (CACHE) {
+			InverseTable table = CACHE.get(modulus);
+			if (table != null) return table;
+		}
+
+		// Built outside the lock, a concurrent duplicate is harmless
+		InverseTable table = new InverseTable(modulus);
+		long bytes = table.bytes();
+		if (bytes > CACHE_BYTES) return table;
+
+		synchronized (CACHE) {
+			InverseTable previous = CACHE.putIfAbsent(modulus, table);
+			if (previous != null) return previous;
+
+			cachedBytes += bytes;
+			Iterator<Map.Entry<Integer, InverseTable>> eldest = CACHE.entrySet().iterator();
+			while (cachedBytes > CACHE_BYTES) {
+				InverseTable evicted = eldest.next().getValue();
+				eldest.remove();
+				cachedBytes -= evicted.bytes();
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * @param term An integer
+	 * @return The multiplicative inverse of term, or else -1
+	 */
+	int get(int term) {
+		if (term < 0 || term >= modulus) term = Math.floorMod(term, modulus);
+		return shortTable != null ? shortTable[term] : intTable[term];
+	}
+
+	/**
+	 * @return The size of this table, in bytes
+	 */
+	long bytes() {
+		return shortTable != null ? 2L * modulus : 4L * modulus;
+	}
+
+	private void store(int term, int inverse) {
+		if (shortTable != null) shortTable[term] = (short) inverse;
+		else intTable[term] = inverse;
+	}
+}
@@ -25,6 +25,10 @@
 package beadring;
 
 import java.io.PrintStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -32,19 +36,67 @@ import java.io.PrintStream;
  */
 public class LinearCongruence {
 
-	static class Solution {
+	/**
+	 * Immutable, hence freely shared between threads
+	 */
+	static final class Solution {
 
-		public Solution(int value, int baseMod, int period) {
+		public Solution(long value, long baseMod, long period) {
 			this.baseMod = baseMod;
 			this.value = value;
 			this.period = period;
+			this.bigBaseMod = this.bigValue = this.bigPeriod = null;
+		}
+
+		/**
+		 * Arbitrary-precision solution; the long fields are set to -1
+		 */
+		Solution(BigInteger value, BigInteger baseMod, BigInteger period) {
+			this.baseMod = this.value = this.period = -1;
+			this.bigBaseMod = baseMod;
+			this.bigValue = value;
+			this.bigPeriod = period;
+		}
+
+		final long baseMod, value, period;
+
+		// Arbitrary-precision counterparts, present only when the combined modulus does not fit in a long
+		final BigInteger bigBaseMod, bigValue, bigPeriod;
+
+		boolean isBig() {
+			return bigBaseMod != null;
+		}
+
+		BigInteger getBigBaseMod() {
+			return isBig() ? bigBaseMod : BigInteger.valueOf(baseMod);
 		}
 
-		int baseMod, value, period;
+		BigInteger getBigValue() {
+			return isBig() ? bigValue : BigInteger.valueOf(value);
+		}
+
+		BigInteger getBigPeriod() {
+			return isBig() ? bigPeriod : BigInteger.valueOf(period);
+		}
+
+		/**
+		 * Enumerates the solutions in [from, to) in increasing order, without testing candidates
+		 *
+		 * @param from The lower bound of the range, inclusive
+		 * @param to The upper bound of the range, exclusive
+		 * @param parallel Whether the stream is parallel
+		 * @return The solutions lying in the range
+		 * @throws IllegalArgumentException If the range holds more than Long.MAX_VALUE solutions
+		 */
+		LongStream solutions(long from, long to, boolean parallel) {
+			return StreamSupport.longStream(new SolutionSpliterator(this, from, to), parallel);
+		}
 
 		@Override
 		public String toString() {
-			return "x = " + value + " (+ " + baseMod + "k), k: 0 -> " + (period - 1);
+			return isBig()
+					? "x = " + bigValue + " (+ " + bigBaseMod + "k), k: 0 -> " + bigPeriod.subtract(BigInteger.ONE)
+					: "x = " + value + " (+ " + baseMod + "k), k: 0 -> " + (period - 1);
 		}
 	}
 
@@ -56,6 +108,9 @@ public class LinearCongruence {
 		if (modulus == 0) {
 			throw new IllegalArgumentException("Modulus cannot be 0");
 		}
+		if (modulus == Integer.MIN_VALUE) {
+			throw new IllegalArgumentException("Modulus out of range, its absolute value does not fit in an int");
+		}
 		this.coefficient = coefficient;
 		this.known = known;
 		this.modulus = modulus > 0 ? modulus : -modulus;
@@ -68,6 +123,11 @@ public class LinearCongruence {
 		return o.coefficient == coefficient && o.known == known && o.modulus == modulus; //To change body of generated methods, choose Tools | Templates.
 	}
 
+	@Override
+	public int hashCode() {
+		return (31 * coefficient + known) * 31 + modulus;
+	}
+
 	/**
 	 * Returns the canonical section of term according to modulus
 	 *
@@ -129,14 +189,14 @@ public class LinearCongruence {
 	 *
 	 * return remainder; // Divisor has been swapped with remainder }
 	 *
-	 * Euclid's algorithm implementation
+	 * Euclid's algorithm implementation, superseded by the binary one in {@link #gcd(int, int)}
 	 *
 	 * @param a first operand
 	 * @param b second operand
 	 * @return the greatest common divisor of a and b, or 0 if either one operand is negative or both are zero
 	 */
 
-	static int gcd(int a, int b) {
+	static int gcdeuclid(int a, int b) {
 
 		// Exclude problematic inputs
 		if (a < 0 || b < 0 || (a == 0 && b == 0)) return 0;
@@ -155,6 +215,128 @@ public class LinearCongruence {
 		return b;
 	}
 
+	/**
+	 * Binary (Stein's) algorithm: no divisions, only shifts and subtractions
+	 *
+	 * The common power of two is set aside first, then both operands are kept odd by stripping their trailing zeros,
+	 * and the larger one is replaced by the difference, which is even, until they match.
+	 *
+	 * @param a first operand
+	 * @param b second operand
+	 * @return the greatest common divisor of a and b, or 0 if either one operand is negative or both are zero
+	 */
+	static int gcd(int a, int b) {
+
+		// Exclude problematic inputs
+		if (a < 0 || b < 0 || (a == 0 && b == 0)) return 0;
+		if (a == 0) return b;
+		if (b == 0) return a;
+
+		int shift = Integer.numberOfTrailingZeros(a | b);
+		a >>>= Integer.numberOfTrailingZeros(a);
+		do {
+			b >>>= Integer.numberOfTrailingZeros(b);
+
+			// Branchless a, b = min(a, b), |b - a|; the sign mask is all ones iff b < a
+			int diff = b - a;
+			int sign = diff >> 31;
+			a += diff & sign;
+			b = (diff + sign) ^ sign;
+		} while (b != 0);
+
+		return a << shift;
+	}
+
+	/**
+	 * Binary algorithm, 64-bit version
+	 *
+	 * @see #gcd(int, int)
+	 */
+	static long gcd(long a, long b) {
+		if (a < 0 || b < 0 || (a == 0 && b == 0)) return 0;
+		if (a == 0) return b;
+		if (b == 0) return a;
+
+		int shift = Long.numberOfTrailingZeros(a | b);
+		a >>>= Long.numberOfTrailingZeros(a);
+		do {
+			b >>>= Long.numberOfTrailingZeros(b);
+
+			// Branchless a, b = min(a, b), |b - a|; the sign mask is all ones iff b < a
+			long diff = b - a;
+			long sign = diff >> 63;
+			a += diff & sign;
+			b = (diff + sign) ^ sign;
+		} while (b != 0);
+
+		return a << shift;
+	}
+
+	/**
+	 * Tells whether a and b are coprime, that is, gcd(a, b) == 1
+	 *
+	 * Faster than a full gcd: two even numbers are rejected right away, any power of two shared by the operands being
+	 * irrelevant from then on, and the binary loop exits as soon as the smaller odd part drops to 1.
+	 *
+	 * @param a first operand
+	 * @param b second operand
+	 * @return true iff gcd(a, b) == 1
+	 */
+	static boolean isCoprime(int a, int b) {
+		if (a < 0 || b < 0) return false;
+		if (((a | b) & 1) == 0) return false;
+		if (a == 0 || b == 0) return (a | b) == 1;
+
+		a >>>= Integer.numberOfTrailingZeros(a);
+		do {
+			b >>>= Integer.numberOfTrailingZeros(b);
+			int diff = b - a;
+			int sign = diff >> 31;
+			a += diff & sign;
+			if (a == 1) return true;
+			b = (diff + sign) ^ sign;
+		} while (b != 0);
+		return false;
+	}
+
+	/**
+	 * Tells whether the product of two non-negative longs does not fit in a long
+	 */
+	static boolean overflows(long a, long b) {
+		return Math.multiplyHigh(a, b) != 0 || a * b < 0;
+	}
+
+	/**
+	 * Computes (a * b) mod modulus without overflowing, for any a and b in [0, modulus)
+	 *
+	 * @implNote If the product fits in a long a single remainder is enough; otherwise the 128-bit product, whose high
+	 * half comes from {@link Math#multiplyHigh}, is reduced one bit at a time, without ever leaving [0, modulus)
+	 *
+	 * @param a
+	 * @param b
+	 * @param modulus A positive modulus
+	 * @return The canonical representative of a * b in modulus
+	 */
+	static long mulMod(long a, long b, long modulus) {
+		long hi = Math.multiplyHigh(a, b);
+		long lo = a * b;
+		if (hi == 0 && lo >= 0) return lo % modulus;
+
+		long r = hi % modulus;
+		for (int bit = 63; bit >= 0; bit--) {
+			r = addMod(r, r, modulus);
+			if (((lo >>> bit) & 1) != 0) r = addMod(r, 1, modulus);
+		}
+		return r;
+	}
+
+	/**
+	 * Computes (a + b) mod modulus without overflowing, for any a and b in [0, modulus)
+	 */
+	static long addMod(long a, long b, long modulus) {
+		return a >= modulus - b ? a - (modulus - b) : a + b;
+	}
+
 
 	/**
 	 * @brief findMultInverse Returns the multiplicative inverse of term modulo
@@ -167,6 +349,120 @@ public class LinearCongruence {
 		return fmiclean(term, modulus, 2);
 	}
 
+	/**
+	 * Iterative extended Euclid: carries the Bezout coefficient of term along the remainder sequence
+	 *
+	 * Also covers the degenerate modulus 1, whose only inverse is 0
+	 *
+	 * @param term
+	 * @param modulus
+	 * @return The multiplicative inverse of term modulo modulus, or else -1
+	 */
+	static int fmieuclid(int term, int modulus) {
+		if (modulus <= 0) return -1;
+
+		int r0 = modulus, r1 = Math.floorMod(term, modulus);
+		int s0 = 0, s1 = 1;
+		while (r1 != 0) {
+			int q = r0 / r1;
+			int r = r0 - q * r1;
+			r0 = r1;
+			r1 = r;
+			int s = s0 - q * s1;
+			s0 = s1;
+			s1 = s;
+		}
+
+		// r0 is now the gcd
+		if (r0 != 1) return -1;
+		return s0 < 0 ? s0 + modulus : s0;
+	}
+
+	/**
+	 * Inverts many terms under the same modulus at once, with Montgomery's trick:
+	 *
+	 * the running products p_i = t_0 * ... * t_i are inverted with a single extended Euclid call on p_(n-1), then walking
+	 * backwards Inv(t_i) = Inv(p_i) * p_(i-1) and Inv(p_(i-1)) = Inv(p_i) * t_i, for 3(n-1) multiplications overall.
+	 *
+	 * Non-invertible terms would make the whole product non-invertible: if that happens, they are spotted with a gcd
+	 * check and left out of the products.
+	 *
+	 * @param terms The terms to invert, replaced in place by their inverses, or by -1 where there is none
+	 * @param count How many terms of the array to consider
+	 * @param modulus A positive modulus
+	 * @return How many terms are not invertible
+	 */
+	static int fmibatch(int[] terms, int count, int modulus) {
+		if (modulus <= 0) {
+			throw new IllegalArgumentException("Modulus must be positive");
+		}
+		if (count == 0) return 0;
+
+		// The whole batch shares one modulus, so reductions go through Barrett
+		ModContext ctx = new ModContext(modulus);
+		for (int i = 0; i < count; i++) {
+			terms[i] = ctx.reduce(terms[i]);
+		}
+
+		int[] products = new int[count];
+		int product = ctx.reduce(1);
+		for (int i = 0; i < count; i++) {
+			product = ctx.mul(product, terms[i]);
+			products[i] = product;
+		}
+
+		int failures = 0;
+		int inverse = ctx.inverse(product);
+		if (inverse < 0) {
+
+			// Slow path: mark the culprits, treat them as 1 in the products
+			product = ctx.reduce(1);
+			for (int i = 0; i < count; i++) {
+				if (!isCoprime(terms[i], modulus)) {
+					terms[i] = -1;
+					failures++;
+				}
+				else product = ctx.mul(product, terms[i]);
+				products[i] = product;
+			}
+			inverse = ctx.inverse(product);
+		}
+
+		for (int i = count - 1; i > 0; i--) {
+			if (terms[i] < 0) continue;
+			int term = terms[i];
+			terms[i] = ctx.mul(inverse, products[i - 1]);
+			inverse = ctx.mul(inverse, term);
+		}
+		if (terms[0] >= 0) terms[0] = inverse;
+
+		return failures;
+	}
+
+	/**
+	 * Iterative extended Euclid, 64-bit version
+	 *
+	 * @see #fmieuclid(int, int)
+	 */
+	static long fmieuclid(long term, long modulus) {
+		if (modulus <= 0) return -1;
+
+		long r0 = modulus, r1 = Math.floorMod(term, modulus);
+		long s0 = 0, s1 = 1;
+		while (r1 != 0) {
+			long q = r0 / r1;
+			long r = r0 - q * r1;
+			r0 = r1;
+			r1 = r;
+			long s = s0 - q * s1;
+			s0 = s1;
+			s1 = s;
+		}
+
+		if (r0 != 1) return -1;
+		return s0 < 0 ? s0 + modulus : s0;
+	}
+
 //	/**
 //	 * @brief reduce Reduces the given congruence, if solvable, to its coprime
 //	 * form.
@@ -206,85 +502,266 @@ public class LinearCongruence {
 	 *
 	 *
 	 * @param congruence
-	 * @param log
+	 * @param trace Receives the solving steps
 	 * @return
 	 */
-	static Solution solveLinearCongruence(LinearCongruence congruence, PrintStream log) {
-		log.println("Solving " + congruence);
+	static Solution solveLinearCongruence(LinearCongruence congruence, SolverTrace trace) {
+		trace.solving(congruence);
 
 		LinearCongruence reduced = congruence.canonize();
 		if (congruence != reduced) {
-			log.println("Simplified as: " + reduced);
+			trace.canonized(congruence, reduced);
 		}
 
 		// Reduce the congruence, if possible
 		int commondiv = gcd(reduced.coefficient, reduced.modulus);
 		if ((reduced.known % commondiv) != 0) {
-			log.println("Congruence is unsolvable, GCD" + commondiv + "does not divide" + reduced.known);
+			trace.unsolvable(reduced, commondiv);
 			return null;
 		}
 		else if (commondiv != 1) {
 			reduced = new LinearCongruence(reduced.coefficient / commondiv, reduced.known / commondiv, reduced.modulus / commondiv);
-			log.println("Reduced form: " + reduced + ", GCD: " + commondiv);
+			trace.reduced(reduced, commondiv);
 		}
 
 		Solution r = new Solution(
-				(findMultInverse(reduced.coefficient, reduced.modulus) * reduced.known) % reduced.modulus,
+				// The alpha recursion overflows past Short.MAX_VALUE moduli, Euclid does not
+				((long) fmieuclid(reduced.coefficient, reduced.modulus) * reduced.known) % reduced.modulus,
 				reduced.modulus,
 				(congruence.modulus / reduced.modulus));
 
-		log.println("Solution: " + r);
+		trace.solved(congruence, r);
 		return r;
 	}
 
 
+	/**
+	 * Untraced counterpart of {@link #solveLinearCongruence(LinearCongruence, SolverTrace)}, working on the bare terms
+	 *
+	 * @param modulus A positive modulus
+	 * @return The solution to coefficient * x ~ known (mod modulus), or null if there is none
+	 */
+	static Solution solveLinearCongruence(int coefficient, int known, int modulus) {
+		coefficient = Math.floorMod(coefficient, modulus);
+		known = Math.floorMod(known, modulus);
+
+		int commondiv = gcd(coefficient, modulus);
+		if (known % commondiv != 0) return null;
+
+		int reducedMod = modulus / commondiv;
+		return new Solution(((long) fmieuclid(coefficient / commondiv, reducedMod) * (known / commondiv)) % reducedMod, reducedMod, commondiv);
+	}
+
+	/**
+	 * Solves a system stored as parallel arrays, as in {@link #solveCongruenceSystem(LinearCongruence[], int, SolverTrace, int)}
+	 *
+	 * Untraced solving never builds congruence objects; tracing builds them once, since trace events refer to them.
+	 *
+	 * @param system The congruences
+	 * @param trace Receives the solving steps
+	 * @param mode The merging strategy
+	 * @return The solution to the system, or null if it cannot be solved
+	 */
+	static Solution solveCongruenceSystem(CongruenceSystem system, SolverTrace trace, int mode) {
+		if (trace != SolverTrace.NONE) {
+			return solveCongruenceSystem(system.toArray(), system.size(), trace, mode);
+		}
+		if (mode != 1 && mode != 2) {
+			throw new IllegalArgumentException("Bad mode specified");
+		}
+
+		Solution r = solveLinearCongruence(system.coefficient(0), system.known(0), system.modulus(0));
+		for (int idx = 1; idx < system.size() && r != null; idx++) {
+			Solution r2 = solveLinearCongruence(system.coefficient(idx), system.known(idx), system.modulus(idx));
+			r = r2 == null ? null : merge(r, r2, mode);
+		}
+		return r;
+	}
+
 	static Solution solveCongruenceSystem(LinearCongruence[] congs, int count, PrintStream log) {
+		return solveCongruenceSystem(congs, count, new SolverTrace.Printer(log), 2);
+	}
+
+	/**
+	 * Solves a system of congruences, merging them left to right.
+	 *
+	 * Moduli need not be coprime: each merge checks that the two partial solutions agree modulo the gcd of their
+	 * moduli, and combines them modulo the lcm. If they do not agree, the first preceding congruence contradicting the
+	 * current one is reported.
+	 *
+	 * Two merging strategies are available:
+	 * <ul>
+	 *     <li>1: the original step-by-step merge, linear in the lcm of the moduli, kept as a reference</li>
+	 *     <li>2: a closed-form Garner step built on extended Euclid, logarithmic in the moduli</li>
+	 * </ul>
+	 *
+	 * Merging runs on longs, with overflow-safe products; as soon as the combined modulus stops fitting in a long, the
+	 * solution is promoted to its BigInteger form and every further merge is a Garner step on BigIntegers, regardless
+	 * of mode.
+	 *
+	 * The period of the result counts the solutions modulo the lcm of all the original moduli.
+	 *
+	 * @param congs The congruences
+	 * @param count How many congruences of the array to consider
+	 * @param trace Receives the solving steps
+	 * @param mode The merging strategy
+	 * @return The solution to the system, or null if it cannot be solved
+	 */
+	static Solution solveCongruenceSystem(LinearCongruence[] congs, int count, SolverTrace trace, int mode) {
+		if (mode != 1 && mode != 2) {
+			throw new IllegalArgumentException("Bad mode specified");
+		}
 
 		// Solve first
-		log.print("Congruence no.0: ");
-		Solution r = solveLinearCongruence(congs[0], log);
-		log.println();
+		trace.solving(0, congs[0]);
+		Solution r = solveLinearCongruence(congs[0], trace);
+		if (r == null) return null;
 
 		for (int idx = 1; idx < count; idx++) {
 
 			LinearCongruence cong = congs[idx];
-			log.print("Congruence no." + (idx) + ": ");
+			trace.solving(idx, cong);
+
+			Solution r2 = solveLinearCongruence(cong, trace);
+			if (r2 == null) return null;
 
-			// Check if moduli are coprime
-			if (gcd(r.baseMod, cong.modulus) != 1) {
-				log.println("Modulus (" + cong.modulus + ") is not coprime with the preceding ones!\nCurrent radix is set in modulo " + r.baseMod);
+			// Find common solution
+			Solution merged = merge(r, r2, mode);
+			if (merged == null) {
+				if (trace != SolverTrace.NONE) traceContradiction(congs, idx, r2, trace);
 				return null;
 			}
+			r = merged;
+			trace.merged(idx, r);
+		}
 
-			Solution r2 = solveLinearCongruence(cong, log);
-			log.println();
+		return r;
+	}
 
-			// Find common solution
-			int nextMod = r.baseMod * r2.baseMod;
-			int a = r.value;
-			int b = r2.value;
-			while (a != b) {
-				if (a > nextMod || b > nextMod) {
-
-					// If we ever get here, something's HORRIBLY WRONG
-					throw new RuntimeException("INTERNAL ERROR: Count exceeded");
-				}
-				// TODO ternary operator
-				else if (a > b) {
-					b += r2.baseMod;
-				}
-				else { // a<b
-					a += r.baseMod;
-				}
+	/**
+	 * Merges two solutions into the common one
+	 *
+	 * The span of a solution is the lcm of the original moduli, that is, baseMod times period; merged spans and moduli
+	 * are computed as lcms, so that the operation is associative and commutative.
+	 *
+	 * @param r A solution
+	 * @param r2 Another solution
+	 * @param mode The merging strategy for long solutions, as in {@link #solveCongruenceSystem(LinearCongruence[], int, SolverTrace, int)}
+	 * @return The common solution, or null if the two solutions contradict each other
+	 */
+	static Solution merge(Solution r, Solution r2, int mode) {
+		if (!r.isBig() && !r2.isBig()) {
+			long span = r.baseMod * r.period, span2 = r2.baseMod * r2.period;
+			long modFactor = r2.baseMod / gcd(r.baseMod, r2.baseMod);
+			long spanFactor = span2 / gcd(span, span2);
+			if (!overflows(r.baseMod, modFactor) && !overflows(span, spanFactor)) {
+				long value = mode == 1
+						? mergeStepwise(r.value, r.baseMod, r2.value, r2.baseMod)
+						: mergeGarner(r.value, r.baseMod, r2.value, r2.baseMod);
+				if (value < 0) return null;
+				long baseMod = r.baseMod * modFactor;
+				return new Solution(value, baseMod, span * spanFactor / baseMod);
 			}
+		}
 
-			r.baseMod = nextMod;
-			r.period *= gcd(cong.coefficient, cong.modulus);
-			r.value = a;
-			log.println("Common result: " + r + "\n");
+		BigInteger m1 = r.getBigBaseMod(), m2 = r2.getBigBaseMod();
+		BigInteger value = mergeGarner(r.getBigValue(), m1, r2.getBigValue(), m2);
+		if (value == null) return null;
+		BigInteger span = lcm(m1.multiply(r.getBigPeriod()), m2.multiply(r2.getBigPeriod()));
+		BigInteger baseMod = lcm(m1, m2);
+		return new Solution(value, baseMod, span.divide(baseMod));
+	}
+
+	/**
+	 * Looks for the first congruence preceding congs[idx] whose solutions disagree with r2, the solution of congs[idx],
+	 * modulo the gcd of their moduli, and reports the contradicting pair.
+	 *
+	 * Such a congruence always exists when the merge fails, since a system is solvable iff its congruences are pairwise
+	 * consistent.
+	 */
+	private static void traceContradiction(LinearCongruence[] congs, int idx, Solution r2, SolverTrace trace) {
+		for (int j = 0; j < idx; j++) {
+			Solution r1 = solveLinearCongruence(congs[j], SolverTrace.NONE);
+			long g = gcd(r1.baseMod, r2.baseMod);
+			if ((r1.value - r2.value) % g != 0) {
+				trace.contradiction(idx, congs[idx], r2, j, congs[j], r1, g);
+				return;
+			}
 		}
+		trace.contradiction(idx, congs[idx], r2, -1, null, null, 0);
+	}
 
-		return r;
+	/**
+	 * Original merging algorithm: advances the smaller of the two candidates by its modulus until they meet.
+	 *
+	 * NOTE: complexity is linear in the lcm of the moduli
+	 *
+	 * @param a The solution modulo m1
+	 * @param m1 The first modulus
+	 * @param b The solution modulo m2
+	 * @param m2 The second modulus
+	 * @return The common solution modulo lcm(m1, m2), or -1 if there is none
+	 */
+	static long mergeStepwise(long a, long m1, long b, long m2) {
+		long nextMod = m1 / gcd(m1, m2) * m2;
+		while (a != b) {
+
+			// Both candidates went past the lcm without meeting: the two congruences are inconsistent
+			if (a >= nextMod || b >= nextMod) {
+				return -1;
+			}
+			else if (a > b) {
+				b += m2;
+			}
+			else { // a<b
+				a += m1;
+			}
+		}
+		return a;
+	}
+
+	/**
+	 * Garner's merging step, generalized to non-coprime moduli; with g = gcd(m1, m2):
+	 *
+	 * x = a + m1 * ((b - a) / g * Inv(m1 / g, m2 / g) mod (m2 / g))
+	 *
+	 * which satisfies both x ~ a (mod m1) and x ~ b (mod m2), and lies in [0, lcm(m1, m2)). Such an x exists iff g
+	 * divides b - a.
+	 *
+	 * @param a The solution modulo m1
+	 * @param m1 The first modulus
+	 * @param b The solution modulo m2
+	 * @param m2 The second modulus, such that lcm(m1, m2) fits in a long
+	 * @return The common solution modulo lcm(m1, m2), or -1 if there is none
+	 */
+	static long mergeGarner(long a, long m1, long b, long m2) {
+		long g = gcd(m1, m2);
+		long diff = b - a;
+		if (diff % g != 0) return -1;
+
+		long m2g = m2 / g;
+		long t = mulMod(Math.floorMod(diff / g, m2g), fmieuclid(m1 / g, m2g), m2g);
+		return a + m1 * t;
+	}
+
+	/**
+	 * Garner's merging step, arbitrary-precision version
+	 *
+	 * @return The common solution modulo lcm(m1, m2), or null if there is none
+	 * @see #mergeGarner(long, long, long, long)
+	 */
+	static BigInteger mergeGarner(BigInteger a, BigInteger m1, BigInteger b, BigInteger m2) {
+		BigInteger g = m1.gcd(m2);
+		BigInteger[] qr = b.subtract(a).divideAndRemainder(g);
+		if (qr[1].signum() != 0) return null;
+
+		BigInteger m2g = m2.divide(g);
+		BigInteger t = qr[0].multiply(m1.divide(g).modInverse(m2g)).mod(m2g);
+		return a.add(m1.multiply(t));
+	}
+
+	static BigInteger lcm(BigInteger a, BigInteger b) {
+		return a.divide(a.gcd(b)).multiply(b);
 	}
 
 	@Override
@@ -389,7 +866,7 @@ public class LinearCongruence {
 	static int fmi2(int term, int modulus) {
 
 		System.out.format("--CALL: %d, %d\n", term, modulus);
-		if (modulus == 0 || gcd(term, modulus) != 1) return -1;
+		if (modulus == 0 || !isCoprime(term, modulus)) return -1;
 		if (term > modulus) {
 			term = section(term, modulus);
 			System.out.println("term canonized to " + term);
@@ -423,7 +900,7 @@ public class LinearCongruence {
 	static int fmi3(int term, int modulus) {
 
 		System.out.format("--CALL: %d, %d\n", term, modulus);
-		if (modulus == 0 || gcd(term, modulus) != 1) return -1;
+		if (modulus == 0 || !isCoprime(term, modulus)) return -1;
 		if (term > modulus) {
 			term = section(term, modulus);
 			System.out.println("term canonized to " + term);
@@ -478,7 +955,7 @@ public class LinearCongruence {
 	static int fmiclean(int term, int modulus, int mode) {
 
 		// can save gcd check and canonization in recursive calls
-		if (modulus == 0 || gcd(term, modulus) != 1) return -1;
+		if (modulus == 0 || !isCoprime(term, modulus)) return -1;
 		if (term > modulus) term = section(term, modulus);
 
 		switch (mode) {
@@ -486,6 +963,8 @@ public class LinearCongruence {
 				return fmirec1(term, modulus);
 			case 2:
 				return fmirec2(term, modulus);
+			case 3:
+				return fmiiter(term, modulus);
 			default:
 				throw new IllegalArgumentException("Bad mode specified");
 		}
@@ -553,6 +1032,84 @@ public class LinearCongruence {
 		return (modulus * fmirec2(k - alpha, k) + 1 + x * mi) / k;
 	}
 
+	/**
+	 * Iterative form of the alpha-based recursion, same formula as {@link #fmirec2}:
+	 *
+	 * Inv(term, modulus) = (modulus * Inv(k - alpha, k) + 1 + x * mi) / k
+	 *
+	 * The descent pushes the modulus and the addend 1 + x * mi of every level onto an explicit accumulator, until a
+	 * base step; the ascent then folds them back, each level dividing by the modulus of the level below. The fold is
+	 * carried on longs.
+	 *
+	 * @param term
+	 * @param modulus
+	 * @return
+	 */
+	static int fmiiter(int term, int modulus) {
+
+		// Depth stays under 10 within Short.MAX_VALUE
+		int[] moduli = new int[16];
+		int[] addends = new int[16];
+		int depth = 0;
+
+		int res;
+		while ((res = checkBaseSteps(term, modulus)) == 0) {
+			int alpha = modulus % term;
+			int mi = (modulus - alpha) / term; // Exact div
+
+			// Alpha-base
+			if (alpha == 1) {
+				res = modulus - mi;
+				break;
+			}
+
+			int x = term / alpha - 1; // Integer div
+			int k = term - alpha * x;
+
+			if (depth == moduli.length) {
+				moduli = Arrays.copyOf(moduli, depth * 2);
+				addends = Arrays.copyOf(addends, depth * 2);
+			}
+			moduli[depth] = modulus;
+			addends[depth] = 1 + x * mi;
+			depth++;
+
+			term = k - alpha;
+			modulus = k;
+		}
+
+		long inverse = res;
+		while (depth > 0) {
+			depth--;
+			inverse = (moduli[depth] * inverse + addends[depth]) / modulus;
+			modulus = moduli[depth];
+		}
+		return (int) inverse;
+	}
+
+	/**
+	 * Validates a mode of {@link #fmiclean} over every pair of term and modulus up to maxModulus: against fmi1 while
+	 * the modulus is at most 2048, and against the defining property term * Inv(term) ~ 1 beyond, where the linear
+	 * fmi1 would take too long.
+	 *
+	 * @param mode The fmiclean mode to validate
+	 * @param maxModulus The largest modulus to check
+	 * @return The number of mismatching pairs
+	 */
+	static long validatefmi(int mode, int maxModulus) {
+		long mismatches = 0;
+		for (int modulus = 2; modulus <= maxModulus; modulus++) {
+			for (int term = 1; term < modulus; term++) {
+				int inverse = fmiclean(term, modulus, mode);
+				boolean ok = modulus <= 2048
+						? inverse == fmi1(term, modulus)
+						: (inverse < 0) == !isCoprime(term, modulus) && (inverse < 0 || (long) inverse * term % modulus == 1);
+				if (!ok) mismatches++;
+			}
+		}
+		return mismatches;
+	}
+
 	static void testfmi(int a, int b) {
 
 		System.out.println("\nTESTING INV(" + a + ", " + b + ")");
@@ -560,11 +1117,12 @@ public class LinearCongruence {
 		int o1 = fmi1(a, b);
 		int o2 = fmiclean(a, b, 1);
 		int o3 = fmiclean(a, b, 2);
+		int o4 = fmiclean(a, b, 3);
 //		int o2 = fmi2(a, b);
 //		int o3 = fmi3(a, b);
 //		int o3 = o2;
 
-		System.out.format("Inverse of %d mod %d: %d - %d - %d \t %s\n", a, b, o1, o2, o3, (o1 == o2 && o2 == o3) ? "OK" : "ERROR");
+		System.out.format("Inverse of %d mod %d: %d - %d - %d - %d \t %s\n", a, b, o1, o2, o3, o4, (o1 == o2 && o2 == o3 && o3 == o4) ? "OK" : "ERROR");
 	}
 
 
@@ -655,6 +1213,9 @@ public class LinearCongruence {
 			testfmi(i - m, i);
 		}
 
+		System.out.println("\n\n\n");
+		System.out.println("Iterative alpha recursion, mismatches up to " + Short.MAX_VALUE + ": " + validatefmi(3, Short.MAX_VALUE));
+
 	}
 
 
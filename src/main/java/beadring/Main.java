@@ -31,8 +31,16 @@ import java.awt.EventQueue;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -63,7 +71,57 @@ public class Main {
 
 	private static LinearCongruence.Solution solution = null;
 
+	// Keeps the solution in sync with the system, one congruence at a time
+	private static final IncrementalSolver solver = new IncrementalSolver();
+
+	// Backs the list model of the system, with no copies
+	private static final CongruenceSystem congruences = new CongruenceSystem();
+
+	/**
+	 * Tells whether the solution has a modulus small enough to be drawn as a ring; the combined modulus of a system can
+	 * easily exceed what a ring can show, or even an int
+	 */
+	private static boolean isAnimatable(LinearCongruence.Solution solution) {
+		return solution != null && !solution.isBig() && solution.baseMod <= PrimeSieve.LIMIT;
+	}
+
+	/**
+	 * Starts the GUI, or with "--batch [--threads n] [file]" solves the systems in file, or on standard input, without
+	 * any GUI; all the available processors are used unless told otherwise
+	 *
+	 * @see BatchSolver
+	 */
 	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("--batch")) {
+			int threads = Runtime.getRuntime().availableProcessors();
+			String file = "-";
+			for (int i = 1; i < args.length; i++) {
+				if (args[i].equals("--threads") && i + 1 < args.length) {
+					try {
+						threads = Integer.parseInt(args[++i]);
+					}
+					catch (NumberFormatException ex) {
+						System.err.println("Bad thread count: " + args[i]);
+						System.err.println("Usage: --batch [--threads n] [file]");
+						System.exit(2);
+					}
+				}
+				else file = args[i];
+			}
+
+			try (Reader in = !file.equals("-")
+					? Files.newBufferedReader(Paths.get(file))
+					: new InputStreamReader(System.in);
+					Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16)) {
+				BatchSolver.run(in, out, System.err, threads);
+			}
+			catch (IOException ex) {
+				Logger.getLogger(Main.class.getName()).log(Level.SEVERE, null, ex);
+				System.exit(1);
+			}
+			return;
+		}
+
 		EventQueue.invokeLater(() -> {
 
             // Setting up OS-native Look&Feel
@@ -87,13 +145,21 @@ public class Main {
 			JLabel modLabel = new JLabel("mod");
 
             // The component viewing the congruence system
-			final StandardListModel<LinearCongruence> systemModel = new StandardListModel<>();
+			final StandardListModel<LinearCongruence> systemModel = new StandardListModel<>(congruences.asList());
 			JList<LinearCongruence> system = new JList<>(systemModel);
+
+			JButton animateButton = new JButton("Animate");
+			animateButton.setEnabled(false);
+
 			system.addKeyListener(new KeyAdapter() {
 				@Override
 				public void keyPressed(KeyEvent e) {
-					if (e.getKeyCode() == KeyEvent.VK_DELETE) {
-						systemModel.remove(system.getSelectedIndex());
+					int index = system.getSelectedIndex();
+					if (e.getKeyCode() == KeyEvent.VK_DELETE && index >= 0) {
+						systemModel.remove(index);
+						solver.remove(index);
+						solution = null;
+						animateButton.setEnabled(false);
 						system.repaint();
 					}
 				}
@@ -131,7 +197,11 @@ public class Main {
 
 			JButton addEqnButton = new JButton("+");
 			addEqnButton.addActionListener((event) -> {
-				systemModel.add(new LinearCongruence(coeffSM.getNumber().intValue(), constSM.getNumber().intValue(), modSM.getNumber().intValue()));
+				LinearCongruence cong = new LinearCongruence(coeffSM.getNumber().intValue(), constSM.getNumber().intValue(), modSM.getNumber().intValue());
+				systemModel.add(cong);
+				solver.add(cong);
+				solution = null;
+				animateButton.setEnabled(false);
 				system.updateUI();
 			});
 
@@ -142,9 +212,6 @@ public class Main {
 
 			JButton computeButton = new JButton("Compute");
 
-			JButton animateButton = new JButton("Animate");
-			animateButton.setEnabled(false);
-
 			animateButton.addActionListener((event) -> {
 
 				JFrame ringFrame = new JFrame();
@@ -154,7 +221,7 @@ public class Main {
 					BeadRing pane = new BeadRing(eqn.modulus);
 					rings.add(pane);
 				}
-				rings.add(new BeadRing(solution.baseMod));
+				rings.add(new BeadRing(Math.toIntExact(solution.baseMod)));
 
 				JToolBar toolbar = new JToolBar();
 				toolbar.setFloatable(false);
@@ -164,8 +231,8 @@ public class Main {
 					@Override
 					public void actionPerformed(ActionEvent e) {
 						for (BeadRing ring : rings) {
-							ring.positionDots(BeadRing.computeRadians(0, ring.beads.length));
-							ring.currentAngle = BeadRing.computeRadians(0, ring.beads.length);
+							ring.positionDots(BeadRing.computeRadians(0, ring.modulus));
+							ring.currentAngle = BeadRing.computeRadians(0, ring.modulus);
 						}
 					}
 				});
@@ -176,7 +243,7 @@ public class Main {
 					public void actionPerformed(ActionEvent e) {
 						for (int i = 0; i < rings.size(); i++) {
 							BeadRing ring = rings.get(i);
-							ring.animateRotation(-BeadRing.computeRadians(solution.value * (i != rings.size() - 1 ? eqns.get(i).coefficient : 1), ring.beads.length), 12000, BeadRing.RotationMode.SINE);
+							ring.animateRotation(-BeadRing.computeRadians(solution.value * (i != rings.size() - 1 ? eqns.get(i).coefficient : 1), ring.modulus), 12000, BeadRing.RotationMode.SINE);
 						}
 					}
 				});
@@ -185,7 +252,7 @@ public class Main {
 				toolbar.add(new AbstractAction("Normalize") {
 					@Override
 					public void actionPerformed(ActionEvent e) {
-						eqns.replaceAll((c) -> c.coefficient == 1 ? c : new LinearCongruence(1, c.known * LinearCongruence.findMultInverse(c.coefficient, c.modulus), c.modulus));
+						eqns.replaceAll((c) -> c.coefficient == 1 ? c : new LinearCongruence(1, c.known * InverseTable.of(c.modulus).get(c.coefficient), c.modulus));
 					}
 				});
 
@@ -214,6 +281,7 @@ public class Main {
 
 			JButton animConcentricButton = new JButton("Concentric");
 			animConcentricButton.addActionListener((event) -> {
+				if (!isAnimatable(solution)) return;
 
 				JFrame ringFrame = new JFrame();
 				List<LinearCongruence> eqns = systemModel.getElementList();
@@ -225,13 +293,13 @@ public class Main {
 
 					rings.add(pane);
 				}
-				rings.add(new BeadRing(solution.baseMod, new Color(0, 0, 0, 0), 15));
+				rings.add(new BeadRing(Math.toIntExact(solution.baseMod), new Color(0, 0, 0, 0), 15));
 
 				JButton setButton = new JButton("Reset");
 				setButton.addActionListener((evt) -> {
 					for (BeadRing ring : rings) {
-						ring.positionDots(BeadRing.computeRadians(0, ring.beads.length));
-						ring.currentAngle = BeadRing.computeRadians(0, ring.beads.length);
+						ring.positionDots(BeadRing.computeRadians(0, ring.modulus));
+						ring.currentAngle = BeadRing.computeRadians(0, ring.modulus);
 					}
 				});
 
@@ -239,7 +307,7 @@ public class Main {
 				solveButton.addActionListener((evt) -> {
 					for (int i = 0; i < rings.size(); i++) {
 						BeadRing ring = rings.get(i);
-						ring.animateRotation(-BeadRing.computeRadians(solution.value * (i != rings.size() - 1 ? eqns.get(i).coefficient : 1), ring.beads.length), 30000, BeadRing.RotationMode.SINE);
+						ring.animateRotation(-BeadRing.computeRadians(solution.value * (i != rings.size() - 1 ? eqns.get(i).coefficient : 1), ring.modulus), 30000, BeadRing.RotationMode.SINE);
 					}
 				});
 
@@ -247,7 +315,7 @@ public class Main {
 				JButton normalizeButton = new JButton("Normalize");
 				normalizeButton.addActionListener((evt) -> {
 					//for (int i = 0; i < eqns.size(); i++) {
-						eqns.replaceAll((c) -> c.coefficient == 1 ? c : new LinearCongruence(1, c.known * LinearCongruence.findMultInverse(c.coefficient, c.modulus), c.modulus));
+						eqns.replaceAll((c) -> c.coefficient == 1 ? c : new LinearCongruence(1, c.known * InverseTable.of(c.modulus).get(c.coefficient), c.modulus));
 					//}
 				});
 
@@ -274,11 +342,15 @@ public class Main {
 			});
 
 			computeButton.addActionListener((event) -> {
+				if (systemModel.getSize() == 0) return;
+
 				ByteArrayOutputStream log = new ByteArrayOutputStream(255);
 				try (PrintStream ps = new PrintStream(log)) {
-					solution = LinearCongruence.solveCongruenceSystem(systemModel.getElementList().toArray(new LinearCongruence[systemModel.getSize()]), systemModel.getSize(), ps);
+					// The incremental solver is kept up to date already; the trace is rendered for the log only
+					solution = solver.getSolution();
+					LinearCongruence.solveCongruenceSystem(congruences, new SolverTrace.Printer(ps), 2);
 				}
-				animateButton.setEnabled(solution != null);
+				animateButton.setEnabled(isAnimatable(solution));
 				computeLog.setText(log.toString());
 			});
 
@@ -346,9 +418,10 @@ public class Main {
 			f.setVisible(true);
 
 
-			systemModel.add(new LinearCongruence(7, 3, 5));
-			systemModel.add(new LinearCongruence(2, 4, 8));
-			systemModel.add(new LinearCongruence(2, 11, 13));
+			for (LinearCongruence cong : new LinearCongruence[]{new LinearCongruence(7, 3, 5), new LinearCongruence(2, 4, 8), new LinearCongruence(2, 11, 13)}) {
+				systemModel.add(cong);
+				solver.add(cong);
+			}
 			system.updateUI();
 			computeButton.doClick();
 		});
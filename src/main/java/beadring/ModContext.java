@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+/**
+ * Arithmetic modulo a fixed modulus, with no division on the hot path
+ *
+ * Reductions use Barrett's method: the reciprocal factor floor(2^64 / modulus) is computed once, then each quotient is
+ * estimated with a single high multiplication, off by at most one, and corrected with a conditional subtraction. Powers
+ * of two are reduced with a mask instead.
+ *
+ * Unless stated otherwise, operands must be canonical, that is in [0, modulus).
+ *
+ * @author Project2100
+ */
+final class ModContext {
+
+	final int modulus;
+
+	// floor(2^64 / modulus), or 0 for powers of two
+	private final long factor;
+	private final long mask;
+
+	ModContext(int modulus) {
+		if (modulus <= 0) {
+			throw new IllegalArgumentException("Modulus must be positive");
+		}
+		this.modulus = modulus;
+		if ((modulus & (modulus - 1)) == 0) {
+			factor = 0;
+			mask = modulus - 1;
+		}
+		else {
+			// 2^64 / modulus is not an integer, so flooring 2^64 - 1 gives the same result
+			factor = Long.divideUnsigned(-1L, modulus);
+			mask = -1;
+		}
+	}
+
+	/**
+	 * Reduces any long to its canonical representative
+	 *
+	 * @param x An integer
+	 * @return The canonical representative of x
+	 */
+	int reduce(long x) {
+		if (x >= 0) return reduceNonNegative(x);
+
+		// x = -(y + 1) with y non-negative, so x ~ modulus - 1 - y
+		return modulus - 1 - reduceNonNegative(-(x + 1));
+	}
+
+	private int reduceNonNegative(long x) {
+		if (factor == 0) return (int) (x & mask);
+
+		long r = x - Math.multiplyHigh(x, factor) * modulus;
+		return (int) (r >= modulus ? r - modulus : r);
+	}
+
+	int add(int a, int b) {
+		int sum = a + b - modulus;
+		return sum < 0 ? sum + modulus : sum;
+	}
+
+	int sub(int a, int b) {
+		int diff = a - b;
+		return diff < 0 ? diff + modulus : diff;
+	}
+
+	int mul(int a, int b) {
+		return reduceNonNegative((long) a * b);
+	}
+
+	/**
+	 * Square-and-multiply exponentiation
+	 *
+	 * @param base A canonical base
+	 * @param exponent A non-negative exponent
+	 * @return base raised to exponent
+	 */
+	int pow(int base, long exponent) {
+		int result = reduceNonNegative(1);
+		while (exponent > 0) {
+			if ((exponent & 1) != 0) result = mul(result, base);
+			base = mul(base, base);
+			exponent >>>= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * @param term An integer
+	 * @return The multiplicative inverse of term, or else -1
+	 */
+	int inverse(int term) {
+		return LinearCongruence.fmieuclid(term, modulus);
+	}
+}
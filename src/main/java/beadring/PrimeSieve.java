@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Arrays;
+
+/**
+ * Smallest-prime-factor sieve up to {@link #LIMIT}, the largest modulus the GUI accepts
+ *
+ * The table is built once, on first use; from then on a modulus factorizes in as many lookups as its prime factors,
+ * and the factorization yields the coprimality of every residue, Euler's totient and the divisor class of every
+ * residue without computing a single gcd.
+ *
+ * @author Project2100
+ */
+final class PrimeSieve {
+
+	static final int LIMIT = Short.MAX_VALUE;
+
+	private PrimeSieve() {
+	}
+
+	/**
+	 * Lazy holder, the sieve is built on first access
+	 */
+	private static final class Holder {
+
+		// Every value fits a short, being at most LIMIT; 0 and 1 have no prime factors and map to themselves
+		static final short[] SPF = build();
+
+		private static short[] build() {
+			short[] spf = new short[LIMIT + 1];
+			spf[1] = 1;
+			for (int i = 2; i <= LIMIT; i++) {
+				if (spf[i] != 0) continue;
+				spf[i] = (short) i;
+				for (int j = i * i; j <= LIMIT; j += i) {
+					if (spf[j] == 0) spf[j] = (short) i;
+				}
+			}
+			return spf;
+		}
+	}
+
+	private static void checkRange(int n) {
+		if (n < 1 || n > LIMIT) {
+			throw new IllegalArgumentException("Modulus " + n + " out of sieve range [1, " + LIMIT + "]");
+		}
+	}
+
+	static int smallestPrimeFactor(int n) {
+		checkRange(n);
+		return Holder.SPF[n];
+	}
+
+	/**
+	 * @param n A modulus within the sieve range
+	 * @return The distinct prime factors of n, in increasing order
+	 */
+	static int[] distinctPrimes(int n) {
+		checkRange(n);
+
+		// No number within the limit has more than 6 distinct prime factors
+		int[] primes = new int[6];
+		int count = 0;
+		while (n > 1) {
+			int p = Holder.SPF[n];
+			primes[count++] = p;
+			while (n % p == 0) n /= p;
+		}
+		return Arrays.copyOf(primes, count);
+	}
+
+	/**
+	 * Euler's totient: n times the product of (1 - 1/p) over the distinct primes p dividing n
+	 */
+	static int totient(int n) {
+		int phi = n;
+		for (int p : distinctPrimes(n)) phi = phi / p * (p - 1);
+		return phi;
+	}
+
+	/**
+	 * @param term An integer
+	 * @param n A modulus within the sieve range
+	 * @return true iff gcd(term, n) == 1
+	 */
+	static boolean isCoprime(int term, int n) {
+		checkRange(n);
+		while (n > 1) {
+			int p = Holder.SPF[n];
+			if (term % p == 0) return false;
+			while (n % p == 0) n /= p;
+		}
+		return true;
+	}
+
+	/**
+	 * Marks the residues coprime with n: bit i of the mask, word i / 64, is set iff gcd(i, n) == 1
+	 *
+	 * @param n A modulus within the sieve range
+	 * @return The coprimality mask over [0, n)
+	 */
+	static long[] coprimeMask(int n) {
+		long[] mask = new long[(n + 63) >>> 6];
+		Arrays.fill(mask, -1L);
+		if ((n & 63) != 0) mask[mask.length - 1] = -1L >>> (64 - (n & 63));
+
+		for (int p : distinctPrimes(n)) {
+			for (int i = 0; i < n; i += p) {
+				mask[i >>> 6] &= ~(1L << i);
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Tells whether bit i of a mask built by {@link #coprimeMask(int)} is set
+	 */
+	static boolean isSet(long[] mask, int i) {
+		return (mask[i >>> 6] & (1L << i)) != 0;
+	}
+
+	/**
+	 * Computes the divisor class of every residue, that is gcd(i, n) for every i in [0, n)
+	 *
+	 * For each prime power p^k exactly dividing n, the multiples of p, p^2, ..., p^k each gain a factor p.
+	 *
+	 * @param n A modulus within the sieve range
+	 * @return The gcd of every residue with n
+	 */
+	static int[] divisorClasses(int n) {
+		int[] classes = new int[n];
+		Arrays.fill(classes, 1);
+
+		int rest = n;
+		while (rest > 1) {
+			int p = Holder.SPF[rest];
+			for (int power = p; rest % p == 0; power *= p) {
+				rest /= p;
+				for (int i = 0; i < n; i += power) classes[i] *= p;
+			}
+		}
+		return classes;
+	}
+}
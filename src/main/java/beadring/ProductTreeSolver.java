@@ -0,0 +1,114 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Divide-and-conquer solver for large congruence systems
+ *
+ * Congruences are merged pairwise along a balanced binary tree, so that both operands of a merge have comparable
+ * moduli, instead of one ever-growing radix absorbing the congruences one at a time; this turns the quadratic
+ * big-number cost of the left-to-right solver into a quasi-linear one. Independent subtrees are merged in parallel on a
+ * ForkJoinPool.
+ *
+ * @author Project2100
+ */
+@SuppressWarnings("serial")
+class ProductTreeSolver extends RecursiveTask<LinearCongruence.Solution> {
+
+	/**
+	 * Subtrees with at most this many congruences are merged within a single task
+	 */
+	static final int THRESHOLD = 256;
+
+	private final LinearCongruence[] congs;
+	private final int lo, hi;
+
+	private ProductTreeSolver(LinearCongruence[] congs, int lo, int hi) {
+		this.congs = congs;
+		this.lo = lo;
+		this.hi = hi;
+	}
+
+	/**
+	 * Solves the system on the common pool
+	 *
+	 * @see #solve(LinearCongruence[], int, ForkJoinPool)
+	 */
+	static LinearCongruence.Solution solve(LinearCongruence[] congs, int count) {
+		return solve(congs, count, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Solves a system of congruences, which need not have coprime moduli
+	 *
+	 * @param congs The congruences
+	 * @param count How many congruences of the array to consider
+	 * @param pool The pool on which to run the merges
+	 * @return The solution to the system, or null if it cannot be solved
+	 */
+	static LinearCongruence.Solution solve(LinearCongruence[] congs, int count, ForkJoinPool pool) {
+		if (count <= 0) {
+			throw new IllegalArgumentException("Empty system");
+		}
+		return pool.invoke(new ProductTreeSolver(congs, 0, count));
+	}
+
+	@Override
+	protected LinearCongruence.Solution compute() {
+		if (hi - lo <= THRESHOLD) {
+			return solveRange(congs, lo, hi);
+		}
+
+		int mid = (lo + hi) >>> 1;
+		ProductTreeSolver left = new ProductTreeSolver(congs, lo, mid);
+		left.fork();
+		LinearCongruence.Solution r2 = new ProductTreeSolver(congs, mid, hi).compute();
+		LinearCongruence.Solution r = left.join();
+
+		return merge(r, r2);
+	}
+
+	/**
+	 * Sequential counterpart of {@link #compute()}, for the subtrees under the threshold
+	 */
+	private static LinearCongruence.Solution solveRange(LinearCongruence[] congs, int lo, int hi) {
+		if (hi - lo == 1) {
+			return LinearCongruence.solveLinearCongruence(congs[lo], SolverTrace.NONE);
+		}
+
+		int mid = (lo + hi) >>> 1;
+		LinearCongruence.Solution r = solveRange(congs, lo, mid);
+		if (r == null) return null;
+		return merge(r, solveRange(congs, mid, hi));
+	}
+
+	private static LinearCongruence.Solution merge(LinearCongruence.Solution r, LinearCongruence.Solution r2) {
+		if (r == null || r2 == null) return null;
+		return LinearCongruence.merge(r, r2, 2);
+	}
+}
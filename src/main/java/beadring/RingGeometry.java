@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Arrays;
+
+/**
+ * The beads of a ring, stored as parallel arrays: centers, radii and color classes
+ *
+ * Beads are laid out at angle 0, bead i being i unit angles away from the bottom of the ring; {@link Bead} shapes are
+ * only built, as views, where a Shape is needed.
+ *
+ * @author Project2100
+ */
+final class RingGeometry {
+
+	/**
+	 * Color classes: the zero residue, residues sharing a factor with the modulus, residues coprime with it
+	 */
+	static final byte ZERO = 0, COCOMPOSITE = 1, COPRIME = 2;
+
+	final int size;
+	final double[] x, y, radius;
+	final byte[] colorClass;
+
+	RingGeometry(int modulus, double beadRadius) {
+		size = modulus;
+		x = new double[modulus];
+		y = new double[modulus];
+		radius = new double[modulus];
+		colorClass = new byte[modulus];
+
+		Arrays.fill(radius, beadRadius);
+		colorClass[0] = ZERO;
+		if (modulus <= PrimeSieve.LIMIT) {
+			long[] coprimes = PrimeSieve.coprimeMask(modulus);
+			for (int i = 1; i < modulus; i++)
+				colorClass[i] = PrimeSieve.isSet(coprimes, i) ? COPRIME : COCOMPOSITE;
+		}
+		else {
+			for (int i = 1; i < modulus; i++)
+				colorClass[i] = LinearCongruence.isCoprime(i, modulus) ? COPRIME : COCOMPOSITE;
+		}
+	}
+
+	/**
+	 * Lays the beads out on a circle
+	 *
+	 * @param cx The abscissa of the center
+	 * @param cy The ordinate of the center
+	 * @param ringRadius The radius of the circle
+	 */
+	void layout(double cx, double cy, double ringRadius) {
+		double unitAngle = Math.PI * 2 / size;
+		for (int i = 0; i < size; i++) {
+			double dotRad = i * unitAngle;
+			x[i] = cx - ringRadius * Math.sin(dotRad);
+			y[i] = cy + ringRadius * Math.cos(dotRad);
+		}
+	}
+
+	/**
+	 * @return Whether the point (px, py) lies in bead i
+	 */
+	boolean contains(int i, double px, double py) {
+		double dx = px - x[i], dy = py - y[i];
+		return dx * dx + dy * dy <= radius[i] * radius[i];
+	}
+
+	/**
+	 * @return A shape for bead i, as it is now
+	 */
+	Bead bead(int i) {
+		return new Bead(x[i], y[i], radius[i]);
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoized solutions of congruence systems
+ *
+ * Systems are keyed by their signature: the canonical forms of their congruences, sorted, so that systems differing
+ * only in the order of their congruences or in the representatives of their terms share the same entry; their
+ * solutions are the same, since every congruence is canonized before being solved anyway. Unsolvable systems are
+ * remembered as well.
+ *
+ * Entries are spread over independently locked LRU stripes by the hash of their signature, each one holding at most
+ * its share of the capacity, so that concurrent lookups seldom contend for the same lock.
+ *
+ * @author Project2100
+ */
+final class SolutionCache {
+
+	/**
+	 * Default capacity of the shared cache, in systems
+	 */
+	static final int CAPACITY = 1 << 16;
+
+	/**
+	 * Cache shared by every batch run
+	 */
+	static final SolutionCache SHARED = new SolutionCache(CAPACITY);
+
+	private static final int STRIPES = 16;
+
+	// Stands for unsolvable systems, which the solver reports as null
+	private static final LinearCongruence.Solution UNSOLVABLE = new LinearCongruence.Solution(-1, -1, -1);
+
+	private static final Comparator<LinearCongruence> ORDER = Comparator
+			.comparingInt((LinearCongruence c) -> c.modulus)
+			.thenComparingInt(c -> c.coefficient)
+			.thenComparingInt(c -> c.known);
+
+	private final Stripe[] stripes;
+	private final LongAdder hits = new LongAdder(), misses = new LongAdder();
+
+	SolutionCache(int capacity) {
+		if (capacity < STRIPES) {
+			throw new IllegalArgumentException("Capacity must be at least " + STRIPES);
+		}
+
+		stripes = new Stripe[STRIPES];
+		for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe(capacity / STRIPES);
+	}
+
+	/**
+	 * Returns the solution of the system, solving it only if it is not cached
+	 *
+	 * @param congs The congruences
+	 * @param count How many congruences of the array to consider
+	 * @return The solution to the system, or null if it cannot be solved
+	 */
+	LinearCongruence.Solution solve(LinearCongruence[] congs, int count) {
+		Signature key = new Signature(congs, count);
+		Stripe stripe = stripes[key.hash & (STRIPES - 1)];
+
+		LinearCongruence.Solution solution;
+		synchronized (stripe) {
+			solution = stripe.get(key);
+		}
+		if (solution != null) {
+			hits.increment();
+			return solution == UNSOLVABLE ? null : solution;
+		}
+		misses.increment();
+
+		// Solved outside the lock, a concurrent duplicate is harmless
+		solution = count > ProductTreeSolver.THRESHOLD
+				? ProductTreeSolver.solve(congs, count)
+				: LinearCongruence.solveCongruenceSystem(congs, count, SolverTrace.NONE, 2);
+
+		synchronized (stripe) {
+			stripe.put(key, solution != null ? solution : UNSOLVABLE);
+		}
+		return solution;
+	}
+
+	long hits() {
+		return hits.sum();
+	}
+
+	long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return The number of cached systems
+	 */
+	int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * An access-ordered map evicting its eldest entry past its capacity; guarded by its own lock
+	 */
+	@SuppressWarnings("serial")
+	private static final class Stripe extends LinkedHashMap<Signature, LinearCongruence.Solution> {
+
+		private final int capacity;
+
+		Stripe(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Signature, LinearCongruence.Solution> eldest) {
+			return size() > capacity;
+		}
+	}
+
+	/**
+	 * The sorted canonical terms of a system, copied so that later changes to its congruences do not affect it
+	 */
+	static final class Signature {
+
+		private final int[] terms;
+		private final int hash;
+
+		Signature(LinearCongruence[] congs, int count) {
+			LinearCongruence[] canonical = new LinearCongruence[count];
+			for (int i = 0; i < count; i++) canonical[i] = congs[i].canonize();
+			Arrays.sort(canonical, ORDER);
+
+			terms = new int[3 * count];
+			for (int i = 0; i < count; i++) {
+				terms[3 * i] = canonical[i].coefficient;
+				terms[3 * i + 1] = canonical[i].known;
+				terms[3 * i + 2] = canonical[i].modulus;
+			}
+			// Spread the high bits, stripes are picked by the low ones
+			int h = Arrays.hashCode(terms);
+			hash = h ^ (h >>> 16);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Signature && ((Signature) obj).hash == hash && Arrays.equals(((Signature) obj).terms, terms);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
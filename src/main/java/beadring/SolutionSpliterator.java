@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * The solutions of a system lying in a range, in increasing order
+ *
+ * Solutions are the terms of the progression first + k * baseMod, with k running over [index, end), so no candidate
+ * is ever tested and splitting just halves the index range.
+ *
+ * When the modulus does not fit in a long the step wraps around, but every solution lies in the range, hence fits in a
+ * long, and is computed exactly all the same: the wrapped product differs from the actual one by a multiple of 2^64.
+ *
+ * @author Project2100
+ */
+final class SolutionSpliterator implements Spliterator.OfLong {
+
+	private static final int CHARACTERISTICS = ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+	private final long first, step;
+	private long index;
+	private final long end;
+
+	/**
+	 * @param solution The solution of a system
+	 * @param from The lower bound of the range, inclusive
+	 * @param to The upper bound of the range, exclusive
+	 * @throws IllegalArgumentException If the range holds more than Long.MAX_VALUE solutions
+	 */
+	SolutionSpliterator(LinearCongruence.Solution solution, long from, long to) {
+		BigInteger modulus = solution.getBigBaseMod();
+		BigInteger lower = BigInteger.valueOf(from);
+		BigInteger firstSolution = lower.add(solution.getBigValue().subtract(lower).mod(modulus));
+
+		BigInteger count = from < to && firstSolution.compareTo(BigInteger.valueOf(to)) < 0
+				? BigInteger.valueOf(to).subtract(BigInteger.ONE).subtract(firstSolution).divide(modulus).add(BigInteger.ONE)
+				: BigInteger.ZERO;
+		if (count.bitLength() >= Long.SIZE) {
+			throw new IllegalArgumentException("Range holds more than " + Long.MAX_VALUE + " solutions");
+		}
+
+		this.first = count.signum() > 0 ? firstSolution.longValue() : 0;
+		this.step = modulus.longValue();
+		this.index = 0;
+		this.end = count.longValue();
+	}
+
+	private SolutionSpliterator(long first, long step, long index, long end) {
+		this.first = first;
+		this.step = step;
+		this.index = index;
+		this.end = end;
+	}
+
+	@Override
+	public boolean tryAdvance(LongConsumer action) {
+		if (index >= end) return false;
+		action.accept(first + index++ * step);
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(LongConsumer action) {
+		long i = index;
+		index = end;
+		for (long x = first + i * step; i < end; i++, x += step) action.accept(x);
+	}
+
+	@Override
+	public Spliterator.OfLong trySplit() {
+		long mid = index + (end - index) / 2;
+		if (mid == index) return null;
+
+		SolutionSpliterator prefix = new SolutionSpliterator(first, step, index, mid);
+		index = mid;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return end - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+	@Override
+	public Comparator<? super Long> getComparator() {
+		return null;
+	}
+}
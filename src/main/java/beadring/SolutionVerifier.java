@@ -0,0 +1,103 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Checks candidate solutions against a system in bulk, independently of the solvers, so that their output can be
+ * cross-checked at scale
+ *
+ * Results are bitmasks, bit i being set iff candidate i satisfies every equation. The system is verified one equation
+ * at a time over all the candidates still standing: each equation gets its own {@link ModContext}, so that checking a
+ * candidate takes two Barrett reductions and no division, the bits of a word are gathered without branches, and words
+ * with no candidate left are skipped.
+ *
+ * @implNote The Vector API would need an incubator module at both compile and run time, while this loop stays within
+ * plain Java and is still division-free
+ *
+ * @author Project2100
+ */
+final class SolutionVerifier {
+
+	private SolutionVerifier() {
+	}
+
+	/**
+	 * @param system The system
+	 * @param candidates The values to check
+	 * @return The mask of the candidates satisfying the system, to be read with {@link PrimeSieve#isSet(long[], int)}
+	 */
+	static long[] verify(CongruenceSystem system, long[] candidates) {
+		return verify(system, candidates.length, i -> candidates[i]);
+	}
+
+	/**
+	 * @param system The system
+	 * @param candidates The values to check
+	 * @return The mask of the candidates satisfying the system, to be read with {@link PrimeSieve#isSet(long[], int)}
+	 */
+	static long[] verify(CongruenceSystem system, int[] candidates) {
+		return verify(system, candidates.length, i -> candidates[i]);
+	}
+
+	/**
+	 * @param n The number of candidates
+	 * @param candidate Gives candidate i
+	 */
+	private static long[] verify(CongruenceSystem system, int n, IntToLongFunction candidate) {
+		long[] mask = fullMask(n);
+
+		for (int e = 0; e < system.size(); e++) {
+			ModContext ctx = new ModContext(system.modulus(e));
+			int coefficient = ctx.reduce(system.coefficient(e));
+			int known = ctx.reduce(system.known(e));
+
+			for (int w = 0; w < mask.length; w++) {
+				long word = mask[w];
+				if (word == 0) continue;
+
+				int base = w << 6, bits = Math.min(64, n - base);
+				long keep = 0;
+				for (int b = 0; b < bits; b++) {
+					keep |= (ctx.mul(coefficient, ctx.reduce(candidate.applyAsLong(base + b))) == known ? 1L : 0L) << b;
+				}
+				mask[w] = word & keep;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * @return A mask with the first n bits set
+	 */
+	private static long[] fullMask(int n) {
+		long[] mask = new long[(n + 63) >>> 6];
+		Arrays.fill(mask, -1L);
+		if ((n & 63) != 0) mask[mask.length - 1] = -1L >>> (64 - (n & 63));
+		return mask;
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2018 Andrea Proietto
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package beadring;
+
+import java.io.PrintStream;
+
+/**
+ * Receives the steps taken by the solvers in {@link LinearCongruence}
+ *
+ * Events carry the objects involved, never preformatted text: rendering is left to the consumer, and costs nothing when
+ * nobody listens. Every event defaults to a no-op, so {@link #NONE}, the trace used for unattended solving, compiles
+ * down to nothing once inlined.
+ *
+ * @author Project2100
+ */
+interface SolverTrace {
+
+	/**
+	 * Discards every event
+	 */
+	SolverTrace NONE = new SolverTrace() {
+	};
+
+	/**
+	 * The system solver moves on to the congruence at the given index
+	 */
+	default void solving(int index, LinearCongruence congruence) {
+	}
+
+	/**
+	 * A congruence is about to be solved on its own
+	 */
+	default void solving(LinearCongruence congruence) {
+	}
+
+	/**
+	 * A congruence was brought to its canonical form
+	 */
+	default void canonized(LinearCongruence original, LinearCongruence canonical) {
+	}
+
+	/**
+	 * A congruence was divided by the gcd of its coefficient and modulus
+	 */
+	default void reduced(LinearCongruence reduced, int gcd) {
+	}
+
+	/**
+	 * A congruence has no solution, since the gcd of its coefficient and modulus does not divide its known term
+	 */
+	default void unsolvable(LinearCongruence canonical, int gcd) {
+	}
+
+	/**
+	 * A congruence was solved on its own
+	 */
+	default void solved(LinearCongruence congruence, LinearCongruence.Solution solution) {
+	}
+
+	/**
+	 * The congruence at the given index was merged into the solution of the preceding ones
+	 *
+	 * @param index The index of the congruence just merged
+	 * @param solution The solution so far
+	 */
+	default void merged(int index, LinearCongruence.Solution solution) {
+	}
+
+	/**
+	 * The congruence at the given index contradicts a preceding one, at otherIndex
+	 *
+	 * @param otherIndex The index of the preceding congruence, or -1 if none was singled out
+	 * @param solution The solution of the congruence at index
+	 * @param otherSolution The solution of the congruence at otherIndex, or null
+	 * @param gcd The gcd of the moduli of the two solutions, which does not divide the difference of their values
+	 */
+	default void contradiction(int index, LinearCongruence congruence, LinearCongruence.Solution solution,
+			int otherIndex, LinearCongruence other, LinearCongruence.Solution otherSolution, long gcd) {
+	}
+
+	/**
+	 * Renders the events as the text log shown by the GUI
+	 */
+	static class Printer implements SolverTrace {
+
+		private final PrintStream log;
+
+		Printer(PrintStream log) {
+			this.log = log;
+		}
+
+		@Override
+		public void solving(int index, LinearCongruence congruence) {
+			log.print("Congruence no." + index + ": ");
+		}
+
+		@Override
+		public void solving(LinearCongruence congruence) {
+			log.println("Solving " + congruence);
+		}
+
+		@Override
+		public void canonized(LinearCongruence original, LinearCongruence canonical) {
+			log.println("Simplified as: " + canonical);
+		}
+
+		@Override
+		public void reduced(LinearCongruence reduced, int gcd) {
+			log.println("Reduced form: " + reduced + ", GCD: " + gcd);
+		}
+
+		@Override
+		public void unsolvable(LinearCongruence canonical, int gcd) {
+			log.println("Congruence is unsolvable, GCD " + gcd + " does not divide " + canonical.known);
+		}
+
+		@Override
+		public void solved(LinearCongruence congruence, LinearCongruence.Solution solution) {
+			log.println("Solution: " + solution);
+			log.println();
+		}
+
+		@Override
+		public void merged(int index, LinearCongruence.Solution solution) {
+			log.println("Common result: " + solution + "\n");
+		}
+
+		@Override
+		public void contradiction(int index, LinearCongruence congruence, LinearCongruence.Solution solution,
+				int otherIndex, LinearCongruence other, LinearCongruence.Solution otherSolution, long gcd) {
+			if (otherIndex < 0) {
+				log.println("Congruence no." + index + " (" + congruence + ") contradicts the preceding ones!");
+				return;
+			}
+			log.println("Congruence no." + index + " (" + congruence + ") contradicts congruence no." + otherIndex + " (" + other + ")!\n"
+					+ "Their solutions " + otherSolution.value + " (mod " + otherSolution.baseMod + ") and "
+					+ solution.value + " (mod " + solution.baseMod + ") differ modulo " + gcd);
+		}
+	}
+}
@@ -32,14 +32,27 @@ import javax.swing.AbstractListModel;
 /**
  * A list model enriched with java#util#Iterable capabilities, notably for for-each use
  *
- * @implNote Uses an java#util#ArrayList as its underlying data structure
+ * @implNote Uses an java#util#ArrayList as its underlying data structure, unless given a list to wrap
  *
  * @author Project2100
  * @param <E>
  */
 public class StandardListModel<E> extends AbstractListModel<E> implements Iterable<E>{
 
-	private final List<E> delegate = new ArrayList<>();
+	private final List<E> delegate;
+
+	public StandardListModel() {
+		this(new ArrayList<>());
+	}
+
+	/**
+	 * Creates a model backed by the given list, with no copying; changes to either one show in the other
+	 *
+	 * @param delegate The underlying list
+	 */
+	public StandardListModel(List<E> delegate) {
+		this.delegate = delegate;
+	}
 
 	@Override
 	public int getSize() {